@@ -0,0 +1,46 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every PotionColorizer benchmark with the GC profiler attached, so that each result reports
+ * its allocation rate (gc.alloc.rate.norm) next to its timing. Extra arguments are treated as a
+ * benchmark name filter.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder builder = new OptionsBuilder();
+    if (args.length == 0) {
+      builder.include(BenchmarkMain.class.getPackage().getName() + ".*Benchmark");
+    }
+    for (String filter : args) {
+      builder.include(filter);
+    }
+    Options options =
+        builder.addProfiler(GCProfiler.class).forks(1).warmupIterations(5).measurementIterations(5)
+            .build();
+    new Runner(options).run();
+  }
+
+}
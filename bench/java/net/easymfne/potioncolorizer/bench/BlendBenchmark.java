@@ -0,0 +1,108 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.easymfne.potioncolorizer.BlendMode;
+import net.easymfne.potioncolorizer.BlendPalette;
+import net.easymfne.potioncolorizer.BlendWeighting;
+import net.easymfne.potioncolorizer.EffectColorBlender;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.potion.PotionHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Color blending benchmarks: vanilla PotionHelper against the mod's primitive blender in each
+ * blend mode and weighting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlendBenchmark {
+
+  /** Number of effects blended. */
+  @Param({"1", "4", "8", "16"})
+  public int effects;
+
+  /** Blend mode of the mod's blender. */
+  @Param({"vanilla", "linear", "oklab"})
+  public String mode;
+
+  /** Weighting of the mod's blender. */
+  @Param({"amplifier", "duration", "dominant"})
+  public String weighting;
+
+  private List<PotionEffect> list;
+  private BlendPalette palette;
+  private int[] ids;
+  private int[] amplifiers;
+  private int[] durations;
+  private boolean[] particles;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(4L);
+    list = new ArrayList<PotionEffect>();
+    ids = new int[effects];
+    amplifiers = new int[effects];
+    durations = new int[effects];
+    particles = new boolean[effects];
+    for (int i = 0; i < effects; i++) {
+      ids[i] = 1 + random.nextInt(23);
+      amplifiers[i] = random.nextInt(3);
+      durations[i] = 600 * (1 + random.nextInt(8));
+      particles[i] = true;
+      list.add(new PotionEffect(ids[i], durations[i], amplifiers[i]));
+    }
+    int[] colors = new int[Potion.potionTypes.length];
+    for (Potion potion : Potion.potionTypes) {
+      if (potion != null) {
+        colors[potion.id] = potion.getLiquidColor();
+      }
+    }
+    palette =
+        BlendPalette.of(colors, BlendMode.fromName(mode), BlendWeighting.fromName(weighting),
+            null);
+  }
+
+  @Benchmark
+  public int vanillaList() {
+    return PotionHelper.calcPotionLiquidColor(list);
+  }
+
+  @Benchmark
+  public int blenderList() {
+    return EffectColorBlender.blend(palette, list);
+  }
+
+  @Benchmark
+  public int blenderArrays() {
+    return EffectColorBlender.blend(palette, ids, amplifiers, durations, particles, effects);
+  }
+
+}
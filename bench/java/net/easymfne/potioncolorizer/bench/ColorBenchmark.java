@@ -0,0 +1,69 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.easymfne.potioncolorizer.color.HsbColor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * HSB conversion benchmarks: java.awt.Color against the mod's color package, converting a color to
+ * HSB and back. The picker used to keep the array returned by RGBtoHSB, so the AWT benchmark keeps
+ * it too rather than letting it be optimized away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColorBenchmark {
+
+  private int[] colors;
+  private int next;
+  private float[] hsb;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(5L);
+    colors = new int[4096];
+    for (int i = 0; i < colors.length; i++) {
+      colors[i] = random.nextInt(1 << 24);
+    }
+    hsb = new float[3];
+  }
+
+  @Benchmark
+  public int awtRoundTrip() {
+    int color = colors[next++ & colors.length - 1];
+    hsb = Color.RGBtoHSB(color >> 16 & 0xFF, color >> 8 & 0xFF, color & 0xFF, null);
+    return Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
+  }
+
+  @Benchmark
+  public int modRoundTrip() {
+    int color = colors[next++ & colors.length - 1];
+    HsbColor.toHsb(color, hsb);
+    return HsbColor.toRgb(hsb[0], hsb[1], hsb[2]);
+  }
+
+}
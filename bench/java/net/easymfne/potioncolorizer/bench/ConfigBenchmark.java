@@ -0,0 +1,62 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import net.easymfne.potioncolorizer.LiteModPotionColorizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks of applying a configuration: rebuilding the color tables and writing it out. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigBenchmark {
+
+  /** Whether custom colors are configured. */
+  @Param({"false", "true"})
+  public boolean customColors;
+
+  private LiteModPotionColorizer mod;
+  private Method rebuildColorTables;
+
+  @Setup
+  public void setUp() throws Exception {
+    mod = PotionFixtures.getMod(customColors);
+    rebuildColorTables = LiteModPotionColorizer.class.getDeclaredMethod("rebuildColorTables");
+    rebuildColorTables.setAccessible(true);
+  }
+
+  @Benchmark
+  public Object rebuildColorTables() throws Exception {
+    return rebuildColorTables.invoke(mod);
+  }
+
+  @Benchmark
+  public LiteModPotionColorizer writeConfig() {
+    mod.writeConfig();
+    return mod;
+  }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import net.easymfne.potioncolorizer.ContainerColorPrecomputer;
+import net.easymfne.potioncolorizer.LiteModPotionColorizer;
+import net.minecraft.client.gui.inventory.GuiContainer;
+import net.minecraft.inventory.Container;
+import net.minecraft.inventory.Slot;
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Container opening benchmarks: the first frame of a freshly opened inventory plus large chest,
+ * with and without its potion colors precomputed in a batch beforehand, and the batch itself.
+ * Every invocation opens a container of new custom effect potions, so no color is cached yet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContainerBenchmark {
+
+  private ContainerColorPrecomputer precomputer;
+  private GuiContainer screen;
+  private ItemStack[] stacks;
+  private long seed;
+
+  @Setup
+  public void setUp() {
+    PotionFixtures.getMod(false);
+  }
+
+  @Setup(Level.Invocation)
+  public void openContainer() {
+    stacks = PotionFixtures.inventory(seed++);
+    Container container = new Container();
+    for (ItemStack stack : stacks) {
+      Slot slot = new Slot();
+      slot.putStack(stack);
+      container.inventorySlots.add(slot);
+    }
+    screen = new GuiContainer(container);
+    precomputer = new ContainerColorPrecomputer();
+  }
+
+  private void renderFrame(Blackhole blackhole) {
+    for (ItemStack stack : stacks) {
+      blackhole.consume(LiteModPotionColorizer.getPotionColor(stack, 0));
+      blackhole.consume(LiteModPotionColorizer.getPotionColor(stack, 1));
+    }
+  }
+
+  @Benchmark
+  public void firstFrame(Blackhole blackhole) {
+    renderFrame(blackhole);
+  }
+
+  @Benchmark
+  public void precompute() {
+    precomputer.poll(screen);
+  }
+
+  @Benchmark
+  public void precomputeThenFirstFrame(Blackhole blackhole) {
+    precomputer.poll(screen);
+    renderFrame(blackhole);
+  }
+
+}
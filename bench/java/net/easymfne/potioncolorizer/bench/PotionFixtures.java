@@ -0,0 +1,143 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.util.Random;
+
+import net.easymfne.potioncolorizer.LiteModPotionColorizer;
+import net.minecraft.item.ItemPotion;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.potion.Potion;
+
+/**
+ * Shared setup for the benchmarks: a fully initialized mod instance and generators for the potion
+ * stacks found in a typical inventory.
+ */
+public final class PotionFixtures {
+
+  /** Damage values of the common drinkable and splash potions. */
+  private static final int[] COMMON_DAMAGES = {8193, 8194, 8195, 8196, 8197, 8201, 8225, 8226,
+      8229, 8233, 8257, 8258, 8259, 8260, 8262, 8264, 8265, 8266, 8269, 8270, 16385, 16388, 16396,
+      16418, 16421, 16428};
+
+  /** The potion item shared by all generated stacks. */
+  public static final ItemPotion POTION = new ItemPotion();
+
+  /** The mod instance the benchmarks run against. */
+  private static LiteModPotionColorizer mod;
+
+  private PotionFixtures() {}
+
+  /**
+   * Get the mod instance, creating and initializing it on first use.
+   * 
+   * @param customColors Whether custom colors should be configured for speed, poison and healing
+   * @return The mod instance
+   */
+  public static synchronized LiteModPotionColorizer getMod(boolean customColors) {
+    if (mod == null) {
+      mod = new LiteModPotionColorizer();
+      mod.init(null);
+      mod.onInitCompleted(null, null);
+    }
+    mod.customColors = customColors;
+    mod.customPotionColors.clear();
+    if (customColors) {
+      mod.customPotionColors.put(1, 0x00FFFF);
+      mod.customPotionColors.put(19, 0x00FF00);
+      mod.customPotionColors.put(6, 0xFF00FF);
+    }
+    mod.writeConfig();
+    return mod;
+  }
+
+  /**
+   * Create potions without custom effects, drawn from the common damage values.
+   * 
+   * @param count Number of stacks
+   * @param seed Random seed
+   * @return The stacks
+   */
+  public static ItemStack[] vanillaPotions(int count, long seed) {
+    Random random = new Random(seed);
+    ItemStack[] stacks = new ItemStack[count];
+    for (int i = 0; i < count; i++) {
+      stacks[i] = new ItemStack(POTION, 1, COMMON_DAMAGES[random.nextInt(COMMON_DAMAGES.length)]);
+    }
+    return stacks;
+  }
+
+  /**
+   * Create potions carrying a CustomPotionEffects list.
+   * 
+   * @param count Number of stacks
+   * @param effects Number of effects on each stack
+   * @param seed Random seed
+   * @return The stacks
+   */
+  public static ItemStack[] customPotions(int count, int effects, long seed) {
+    Random random = new Random(seed);
+    ItemStack[] stacks = new ItemStack[count];
+    for (int i = 0; i < count; i++) {
+      NBTTagList list = new NBTTagList();
+      for (int j = 0; j < effects; j++) {
+        NBTTagCompound effect = new NBTTagCompound();
+        effect.setByte("Id", (byte) (1 + random.nextInt(23)));
+        effect.setByte("Amplifier", (byte) random.nextInt(3));
+        effect.setInteger("Duration", 600 + random.nextInt(9000));
+        list.appendTag(effect);
+      }
+      NBTTagCompound tag = new NBTTagCompound();
+      tag.setTag("CustomPotionEffects", list);
+      stacks[i] = new ItemStack(POTION, 1, 8192);
+      stacks[i].setTagCompound(tag);
+    }
+    return stacks;
+  }
+
+  /**
+   * Create the contents of a player inventory plus a large chest: mostly vanilla potions with a
+   * share of custom effect potions carrying 1 to 16 effects.
+   * 
+   * @param seed Random seed
+   * @return The stacks, 90 in total
+   */
+  public static ItemStack[] inventory(long seed) {
+    Random random = new Random(seed);
+    ItemStack[] stacks = new ItemStack[36 + 54];
+    for (int i = 0; i < stacks.length; i++) {
+      if (random.nextInt(4) == 0) {
+        stacks[i] = customPotions(1, 1 + random.nextInt(16), random.nextLong())[0];
+      } else {
+        stacks[i] = vanillaPotions(1, random.nextLong())[0];
+      }
+    }
+    return stacks;
+  }
+
+  /** Get the number of registered potion effects. */
+  public static int registeredPotions() {
+    int count = 0;
+    for (Potion potion : Potion.potionTypes) {
+      if (potion != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
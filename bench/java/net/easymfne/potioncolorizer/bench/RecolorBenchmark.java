@@ -0,0 +1,132 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import net.easymfne.potioncolorizer.LiteModPotionColorizer;
+import net.minecraft.item.ItemPotion;
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mumfrey.liteloader.transformers.event.ReturnEventInfo;
+
+/**
+ * Render hook benchmarks: the recolor hook for both render passes, the deglint hook and a full
+ * inventory sweep, each against vanilla damage value potions and custom effect potions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecolorBenchmark {
+
+  /** Number of stacks cycled through, so that results are not a single cached stack. */
+  private static final int STACKS = 256;
+
+  /** Number of effects on each custom effect potion. */
+  @Param({"1", "4", "8", "16"})
+  public int effects;
+
+  /** Whether custom colors are configured. */
+  @Param({"false", "true"})
+  public boolean customColors;
+
+  /** Whether hook metrics are collected. */
+  @Param({"false", "true"})
+  public boolean metrics;
+
+  private ItemStack[] vanilla;
+  private ItemStack[] custom;
+  private ItemStack[] inventory;
+  private ReturnEventInfo<ItemPotion, Integer> colorEvent;
+  private ReturnEventInfo<ItemPotion, Boolean> glintEvent;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    LiteModPotionColorizer mod = PotionFixtures.getMod(customColors);
+    mod.deglintPotions = true;
+    mod.metricsEnabled = metrics;
+    mod.updateHooks();
+    vanilla = PotionFixtures.vanillaPotions(STACKS, 1L);
+    custom = PotionFixtures.customPotions(STACKS, effects, 2L);
+    inventory = PotionFixtures.inventory(3L);
+    colorEvent = new ReturnEventInfo<ItemPotion, Integer>();
+    glintEvent = new ReturnEventInfo<ItemPotion, Boolean>();
+  }
+
+  private ItemStack next(ItemStack[] stacks) {
+    index = (index + 1) & (STACKS - 1);
+    return stacks[index];
+  }
+
+  @Benchmark
+  public Integer recolorVanillaPass0() {
+    LiteModPotionColorizer.recolorPotion(colorEvent, next(vanilla), 0);
+    return colorEvent.getReturnValue();
+  }
+
+  @Benchmark
+  public Integer recolorVanillaPass1() {
+    LiteModPotionColorizer.recolorPotion(colorEvent, next(vanilla), 1);
+    return colorEvent.getReturnValue();
+  }
+
+  @Benchmark
+  public Integer recolorCustomPass0() {
+    LiteModPotionColorizer.recolorPotion(colorEvent, next(custom), 0);
+    return colorEvent.getReturnValue();
+  }
+
+  @Benchmark
+  public int directVanillaPass0() {
+    return LiteModPotionColorizer.getPotionColor(next(vanilla), 0);
+  }
+
+  @Benchmark
+  public int directCustomPass0() {
+    return LiteModPotionColorizer.getPotionColor(next(custom), 0);
+  }
+
+  @Benchmark
+  public int vanillaCustomPass0() {
+    return PotionFixtures.POTION.getColorFromItemStack(next(custom), 0);
+  }
+
+  @Benchmark
+  public Boolean hasEffect() {
+    LiteModPotionColorizer.hasEffect(glintEvent, next(vanilla));
+    return glintEvent.getReturnValue();
+  }
+
+  @Benchmark
+  public void inventorySweep(Blackhole blackhole) {
+    for (ItemStack stack : inventory) {
+      blackhole.consume(LiteModPotionColorizer.getPotionColor(stack, 0));
+      blackhole.consume(LiteModPotionColorizer.getPotionColor(stack, 1));
+      blackhole.consume(LiteModPotionColorizer.getHasEffect(stack));
+    }
+  }
+
+}
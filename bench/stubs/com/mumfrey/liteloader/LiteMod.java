@@ -0,0 +1,30 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mumfrey.liteloader;
+
+import java.io.File;
+
+/** Headless stand-in for LiteMod. */
+public interface LiteMod {
+
+  String getName();
+
+  String getVersion();
+
+  void init(File configPath);
+
+  void upgradeSettings(String version, File configPath, File oldConfigPath);
+
+}
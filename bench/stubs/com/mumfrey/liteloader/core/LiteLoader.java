@@ -0,0 +1,42 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mumfrey.liteloader.core;
+
+import java.io.File;
+
+import com.mumfrey.liteloader.util.Input;
+
+/** Headless stand-in for LiteLoader; configuration is kept in the temporary directory. */
+public class LiteLoader {
+
+  private static final LiteLoader instance = new LiteLoader();
+
+  private static final Input input = new Input();
+
+  public static LiteLoader getInstance() {
+    return instance;
+  }
+
+  public static Input getInput() {
+    return input;
+  }
+
+  public static File getCommonConfigFolder() {
+    return new File(System.getProperty("java.io.tmpdir"));
+  }
+
+  public void writeConfig(Object mod) {}
+
+}
@@ -0,0 +1,32 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mumfrey.liteloader.util.log;
+
+/** Headless stand-in for LiteLoaderLogger, printing to standard error. */
+public class LiteLoaderLogger {
+
+  public static void info(String format, Object... args) {
+    System.err.println("[INFO] " + String.format(format, args));
+  }
+
+  public static void warning(String format, Object... args) {
+    System.err.println("[WARN] " + String.format(format, args));
+  }
+
+  public static void severe(String format, Object... args) {
+    System.err.println("[SEVERE] " + String.format(format, args));
+  }
+
+}
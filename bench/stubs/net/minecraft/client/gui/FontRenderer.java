@@ -0,0 +1,70 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.client.gui;
+
+/**
+ * Headless stand-in for the font renderer. Characters have roughly the widths of the default font,
+ * and strings are measured the way vanilla measures them: formatting codes take no room, bold text
+ * takes one more point per character, and a formatting character at the end counts as -1.
+ */
+public class FontRenderer {
+
+  public int FONT_HEIGHT = 9;
+
+  public int getCharWidth(char character) {
+    if (character == '\u00a7') {
+      return -1;
+    } else if (character == ' ') {
+      return 4;
+    } else if ("!',.:;i|".indexOf(character) >= 0) {
+      return 2;
+    } else if ("`l".indexOf(character) >= 0) {
+      return 3;
+    } else if ("It[]".indexOf(character) >= 0) {
+      return 4;
+    } else if ("\"()*<>fk{}".indexOf(character) >= 0) {
+      return 5;
+    } else if ("@~".indexOf(character) >= 0) {
+      return 7;
+    }
+    return 6;
+  }
+
+  public int getStringWidth(String text) {
+    if (text == null) {
+      return 0;
+    }
+    int width = 0;
+    boolean bold = false;
+    for (int i = 0; i < text.length(); i++) {
+      int charWidth = getCharWidth(text.charAt(i));
+      if (charWidth < 0 && i < text.length() - 1) {
+        char code = text.charAt(++i);
+        if (code == 'l' || code == 'L') {
+          bold = true;
+        } else if (code == 'r' || code == 'R') {
+          bold = false;
+        }
+        charWidth = 0;
+      }
+      width += charWidth;
+      if (bold && charWidth > 0) {
+        width++;
+      }
+    }
+    return width;
+  }
+
+}
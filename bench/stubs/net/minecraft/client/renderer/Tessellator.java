@@ -0,0 +1,36 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.client.renderer;
+
+/** Headless stand-in for the Tessellator, which draws nothing. */
+public class Tessellator {
+
+  private static final Tessellator instance = new Tessellator();
+
+  private final WorldRenderer worldRenderer = new WorldRenderer();
+
+  public static Tessellator getInstance() {
+    return instance;
+  }
+
+  public WorldRenderer getWorldRenderer() {
+    return worldRenderer;
+  }
+
+  public int draw() {
+    return 0;
+  }
+
+}
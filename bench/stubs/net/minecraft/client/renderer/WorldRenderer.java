@@ -0,0 +1,28 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.client.renderer;
+
+/** Headless stand-in for the WorldRenderer, which discards every vertex. */
+public class WorldRenderer {
+
+  public void startDrawing(int mode) {}
+
+  public void setColorRGBA(int red, int green, int blue, int alpha) {}
+
+  public void addVertex(double x, double y, double z) {}
+
+  public void addVertexWithUV(double x, double y, double z, double u, double v) {}
+
+}
@@ -0,0 +1,67 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.potion.PotionHelper;
+
+/** Headless stand-in for ItemPotion, with the vanilla effect lookup and per-damage cache. */
+public class ItemPotion extends Item {
+
+  private final Map<Integer, List<PotionEffect>> effectCache =
+      new HashMap<Integer, List<PotionEffect>>();
+
+  public List<PotionEffect> getEffects(ItemStack stack) {
+    if (stack.hasTagCompound() && stack.getTagCompound().hasKey("CustomPotionEffects", 9)) {
+      List<PotionEffect> effects = new ArrayList<PotionEffect>();
+      NBTTagList list = stack.getTagCompound().getTagList("CustomPotionEffects", 10);
+      for (int i = 0; i < list.tagCount(); ++i) {
+        NBTTagCompound tag = list.getCompoundTagAt(i);
+        PotionEffect effect = PotionEffect.readCustomPotionEffectFromNBT(tag);
+        if (effect != null) {
+          effects.add(effect);
+        }
+      }
+      return effects;
+    }
+    return getEffects(stack.getMetadata());
+  }
+
+  public List<PotionEffect> getEffects(int damage) {
+    List<PotionEffect> effects = effectCache.get(Integer.valueOf(damage));
+    if (effects == null) {
+      effects = PotionHelper.getPotionEffects(damage, false);
+      effectCache.put(Integer.valueOf(damage), effects);
+    }
+    return effects;
+  }
+
+  public int getColorFromItemStack(ItemStack stack, int pass) {
+    return pass > 0 ? 0xFFFFFF : PotionHelper.calcPotionLiquidColor(getEffects(stack));
+  }
+
+  public boolean hasEffect(ItemStack stack) {
+    List<PotionEffect> effects = getEffects(stack);
+    return effects != null && !effects.isEmpty();
+  }
+
+}
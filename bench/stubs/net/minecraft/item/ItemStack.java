@@ -0,0 +1,51 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.item;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/** Headless stand-in for ItemStack, holding an item, a damage value and an optional tag. */
+public final class ItemStack {
+
+  private final Item item;
+  private final int damage;
+  private NBTTagCompound tag;
+
+  public ItemStack(Item item, int size, int damage) {
+    this.item = item;
+    this.damage = damage;
+  }
+
+  public Item getItem() {
+    return item;
+  }
+
+  public int getMetadata() {
+    return damage;
+  }
+
+  public boolean hasTagCompound() {
+    return tag != null;
+  }
+
+  public NBTTagCompound getTagCompound() {
+    return tag;
+  }
+
+  public void setTagCompound(NBTTagCompound tag) {
+    this.tag = tag;
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.nbt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Headless stand-in for NBTTagCompound, supporting the tag types potions use. */
+public class NBTTagCompound extends NBTBase {
+
+  private final Map<String, NBTBase> tags = new HashMap<String, NBTBase>();
+
+  @Override
+  public byte getId() {
+    return 10;
+  }
+
+  public void setTag(String key, NBTBase tag) {
+    tags.put(key, tag);
+  }
+
+  public void setByte(String key, byte value) {
+    tags.put(key, new NBTTagByte(value));
+  }
+
+  public void setInteger(String key, int value) {
+    tags.put(key, new NBTTagInt(value));
+  }
+
+  public void setBoolean(String key, boolean value) {
+    setByte(key, (byte) (value ? 1 : 0));
+  }
+
+  public NBTBase getTag(String key) {
+    return tags.get(key);
+  }
+
+  public boolean hasKey(String key) {
+    return tags.containsKey(key);
+  }
+
+  public boolean hasKey(String key, int type) {
+    NBTBase tag = tags.get(key);
+    return tag != null
+        && (tag.getId() == type || type == 99 && tag.getId() >= 1 && tag.getId() <= 6);
+  }
+
+  public byte getByte(String key) {
+    NBTBase tag = tags.get(key);
+    if (tag instanceof NBTTagByte) {
+      return ((NBTTagByte) tag).value;
+    }
+    return tag instanceof NBTTagInt ? (byte) ((NBTTagInt) tag).value : 0;
+  }
+
+  public int getInteger(String key) {
+    NBTBase tag = tags.get(key);
+    if (tag instanceof NBTTagInt) {
+      return ((NBTTagInt) tag).value;
+    }
+    return tag instanceof NBTTagByte ? ((NBTTagByte) tag).value : 0;
+  }
+
+  public boolean getBoolean(String key) {
+    return getByte(key) != 0;
+  }
+
+  public NBTTagList getTagList(String key, int type) {
+    NBTBase tag = tags.get(key);
+    if (tag instanceof NBTTagList) {
+      NBTTagList list = (NBTTagList) tag;
+      if (list.tagCount() == 0 || list.getTagType() == type) {
+        return list;
+      }
+    }
+    return new NBTTagList();
+  }
+
+}
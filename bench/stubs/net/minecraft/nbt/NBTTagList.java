@@ -0,0 +1,49 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.nbt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Headless stand-in for NBTTagList. */
+public class NBTTagList extends NBTBase {
+
+  private final List<NBTBase> tags = new ArrayList<NBTBase>();
+  private byte tagType = 0;
+
+  @Override
+  public byte getId() {
+    return 9;
+  }
+
+  public void appendTag(NBTBase tag) {
+    tagType = tag.getId();
+    tags.add(tag);
+  }
+
+  public int tagCount() {
+    return tags.size();
+  }
+
+  public int getTagType() {
+    return tagType;
+  }
+
+  public NBTTagCompound getCompoundTagAt(int index) {
+    NBTBase tag = index >= 0 && index < tags.size() ? tags.get(index) : null;
+    return tag instanceof NBTTagCompound ? (NBTTagCompound) tag : new NBTTagCompound();
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.potion;
+
+/** Headless stand-in for Potion, registering the vanilla 1.8 effects and their liquid colors. */
+public class Potion {
+
+  public static final Potion[] potionTypes = new Potion[32];
+
+  static {
+    new Potion(1, "potion.moveSpeed", 8171462);
+    new Potion(2, "potion.moveSlowdown", 5926017);
+    new Potion(3, "potion.digSpeed", 14270531);
+    new Potion(4, "potion.digSlowDown", 4866583);
+    new Potion(5, "potion.damageBoost", 9643043);
+    new Potion(6, "potion.heal", 16262179);
+    new Potion(7, "potion.harm", 4393481);
+    new Potion(8, "potion.jump", 2293580);
+    new Potion(9, "potion.confusion", 5578058);
+    new Potion(10, "potion.regeneration", 13458603);
+    new Potion(11, "potion.resistance", 10044730);
+    new Potion(12, "potion.fireResistance", 14981690);
+    new Potion(13, "potion.waterBreathing", 3035801);
+    new Potion(14, "potion.invisibility", 8356754);
+    new Potion(15, "potion.blindness", 2039587);
+    new Potion(16, "potion.nightVision", 2039713);
+    new Potion(17, "potion.hunger", 5797459);
+    new Potion(18, "potion.weakness", 4738376);
+    new Potion(19, "potion.poison", 5149489);
+    new Potion(20, "potion.wither", 3484199);
+    new Potion(21, "potion.healthBoost", 16284963);
+    new Potion(22, "potion.absorption", 2445989);
+    new Potion(23, "potion.saturation", 16262179);
+  }
+
+  public final int id;
+  private final String name;
+  private final int liquidColor;
+
+  protected Potion(int id, String name, int liquidColor) {
+    this.id = id;
+    this.name = name;
+    this.liquidColor = liquidColor;
+    potionTypes[id] = this;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getLiquidColor() {
+    return liquidColor;
+  }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.potion;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/** Headless stand-in for PotionEffect, with the vanilla NBT reader. */
+public class PotionEffect {
+
+  private final int id;
+  private final int duration;
+  private final int amplifier;
+  private final boolean showParticles;
+
+  public PotionEffect(int id, int duration, int amplifier) {
+    this(id, duration, amplifier, false, true);
+  }
+
+  public PotionEffect(int id, int duration, int amplifier, boolean ambient, boolean showParticles) {
+    this.id = id;
+    this.duration = duration;
+    this.amplifier = amplifier;
+    this.showParticles = showParticles;
+  }
+
+  public int getPotionID() {
+    return id;
+  }
+
+  public int getDuration() {
+    return duration;
+  }
+
+  public int getAmplifier() {
+    return amplifier;
+  }
+
+  public boolean getIsShowParticles() {
+    return showParticles;
+  }
+
+  public static PotionEffect readCustomPotionEffectFromNBT(NBTTagCompound tag) {
+    byte id = tag.getByte("Id");
+    if (id >= 0 && id < Potion.potionTypes.length && Potion.potionTypes[id] != null) {
+      byte amplifier = tag.getByte("Amplifier");
+      int duration = tag.getInteger("Duration");
+      boolean ambient = tag.getBoolean("Ambient");
+      boolean particles = true;
+      if (tag.hasKey("ShowParticles", 1)) {
+        particles = tag.getBoolean("ShowParticles");
+      }
+      return new PotionEffect(id, duration, amplifier, ambient, particles);
+    }
+    return null;
+  }
+
+}
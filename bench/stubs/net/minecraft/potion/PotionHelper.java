@@ -0,0 +1,71 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.minecraft.potion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Headless stand-in for PotionHelper. The liquid color blend is the vanilla one; brewing is reduced
+ * to the damage value layout of the standard potions (effect in the low four bits, level II in bit
+ * 5, extended duration in bit 6), which is enough to give realistic effect signatures.
+ */
+public class PotionHelper {
+
+  /** Potion id brewed by each value of the low four damage bits, or zero for none. */
+  private static final int[] BREWED = {0, 10, 1, 12, 19, 6, 16, 0, 18, 5, 2, 8, 7, 13, 14, 0};
+
+  public static int calcPotionLiquidColor(Collection<PotionEffect> effects) {
+    int color = 3694022;
+    if (effects != null && !effects.isEmpty()) {
+      float red = 0.0F;
+      float green = 0.0F;
+      float blue = 0.0F;
+      float total = 0.0F;
+      for (PotionEffect effect : effects) {
+        if (effect.getIsShowParticles()) {
+          int liquid = Potion.potionTypes[effect.getPotionID()].getLiquidColor();
+          for (int level = 0; level <= effect.getAmplifier(); ++level) {
+            red += (float) (liquid >> 16 & 255) / 255.0F;
+            green += (float) (liquid >> 8 & 255) / 255.0F;
+            blue += (float) (liquid >> 0 & 255) / 255.0F;
+            ++total;
+          }
+        }
+      }
+      if (total == 0.0F) {
+        return 0;
+      }
+      red = red / total * 255.0F;
+      green = green / total * 255.0F;
+      blue = blue / total * 255.0F;
+      return (int) red << 16 | (int) green << 8 | (int) blue;
+    }
+    return color;
+  }
+
+  public static List<PotionEffect> getPotionEffects(int damage, boolean ignored) {
+    int id = BREWED[damage & 15];
+    if (id == 0) {
+      return null;
+    }
+    List<PotionEffect> effects = new ArrayList<PotionEffect>();
+    int duration = (damage & 64) != 0 ? 9600 : 3600;
+    effects.add(new PotionEffect(id, duration, (damage >> 5) & 1));
+    return effects;
+  }
+
+}
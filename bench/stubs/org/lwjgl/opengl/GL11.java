@@ -0,0 +1,30 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lwjgl.opengl;
+
+/** Headless stand-in for the OpenGL 1.1 constants and calls the GUI batch uses. */
+public class GL11 {
+
+  public static final int GL_ZERO = 0;
+  public static final int GL_ONE = 1;
+  public static final int GL_LINES = 0x1;
+  public static final int GL_QUADS = 0x7;
+  public static final int GL_SRC_ALPHA = 0x302;
+  public static final int GL_ONE_MINUS_SRC_ALPHA = 0x303;
+  public static final int GL_OR_REVERSE = 0x150B;
+
+  public static void glLineWidth(float width) {}
+
+}
@@ -0,0 +1,65 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+/**
+ * The ways in which the colors of a potion's effects can be blended into its liquid color. Each
+ * mode converts the effect colors into the space it averages in once, when a color table is built,
+ * so blending costs the same as vanilla blending whichever mode is used.
+ */
+public enum BlendMode {
+
+  /** Average the sRGB color values, exactly as PotionHelper.calcPotionLiquidColor does. */
+  VANILLA("vanilla"),
+
+  /** Average the colors in linear light, which keeps mixes from turning dark and muddy. */
+  LINEAR("linear"),
+
+  /** Average the colors in the perceptually uniform OKLab space. */
+  OKLAB("oklab");
+
+  /** Name of the mode in the configuration file. */
+  private final String name;
+
+  private BlendMode(String name) {
+    this.name = name;
+  }
+
+  /** Get the name of the mode in the configuration file. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Look up a mode by its name in the configuration file.
+   * 
+   * @param name The mode's name
+   * @return The matching mode, or {@link #VANILLA} if the name is unknown
+   */
+  public static BlendMode fromName(String name) {
+    for (BlendMode mode : values()) {
+      if (mode.name.equalsIgnoreCase(name)) {
+        return mode;
+      }
+    }
+    return VANILLA;
+  }
+
+  /** Get the mode that follows this one, wrapping around after the last. */
+  public BlendMode next() {
+    return values()[(ordinal() + 1) % values().length];
+  }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+/**
+ * Effect colors indexed by potion id, together with their components in the space of a blend
+ * mode, how the effects are weighted and the weight of each effect. The components are worked out
+ * once when the palette is created, so blending only has to add them up and convert the average
+ * back.
+ */
+public final class BlendPalette {
+
+  /** Fixed-point weight of an effect that counts as much as vanilla counts it. */
+  public static final int WEIGHT_ONE = 256;
+
+  /** Largest configurable weight of an effect. */
+  public static final float MAXIMUM_WEIGHT = 16.0F;
+
+  /** Blend mode the components belong to. */
+  private final BlendMode mode;
+
+  /** How the effects are weighted. */
+  private final BlendWeighting weighting;
+
+  /** Effect colors indexed by potion id. */
+  private final int[] colors;
+
+  /** Fixed-point weights indexed by potion id, or null if every effect weighs the same. */
+  private final int[] weights;
+
+  /** Three fixed-point components per potion id, or null when blending exactly like vanilla. */
+  private final int[] components;
+
+  private BlendPalette(BlendMode mode, BlendWeighting weighting, int[] colors, int[] weights) {
+    this.mode = mode;
+    this.weighting = weighting;
+    this.colors = colors;
+    this.weights = weights;
+    if (isVanilla()) {
+      components = null;
+    } else {
+      components = new int[colors.length * 3];
+      for (int id = 0; id < colors.length; id++) {
+        EffectColorBlender.toComponents(mode, colors[id], components, id * 3);
+      }
+    }
+  }
+
+  /**
+   * Create a palette for blending the given colors in the given mode, weighting the effects by
+   * their amplifiers only.
+   * 
+   * @param colors Effect colors indexed by potion id, which must not be modified afterwards
+   * @param mode The blend mode
+   * @return The new palette
+   */
+  public static BlendPalette of(int[] colors, BlendMode mode) {
+    return new BlendPalette(mode, BlendWeighting.AMPLIFIER, colors, null);
+  }
+
+  /**
+   * Create a palette for blending the given colors in the given mode and weighting.
+   * 
+   * @param colors Effect colors indexed by potion id, which must not be modified afterwards
+   * @param mode The blend mode
+   * @param weighting How the effects are weighted
+   * @param weights Fixed-point weights indexed by potion id, or null if every effect weighs the
+   *        same; ids beyond the array weigh {@link #WEIGHT_ONE}
+   * @return The new palette
+   */
+  public static BlendPalette of(int[] colors, BlendMode mode, BlendWeighting weighting,
+      int[] weights) {
+    return new BlendPalette(mode, weighting, colors, weights);
+  }
+
+  /**
+   * Convert a configured effect weight to fixed point, clamping it to the supported range. The
+   * smallest weight is kept above zero, so that a potion whose only effect weighs nothing still
+   * gets that effect's color.
+   * 
+   * @param weight The configured weight, where 1 counts as much as vanilla does
+   * @return The fixed-point weight
+   */
+  public static int toWeight(float weight) {
+    return Math.max(1, Math.round(Math.min(weight, MAXIMUM_WEIGHT) * WEIGHT_ONE));
+  }
+
+  /** Get the blend mode of the palette. */
+  public BlendMode getMode() {
+    return mode;
+  }
+
+  /** Get how the effects are weighted. */
+  public BlendWeighting getWeighting() {
+    return weighting;
+  }
+
+  /** Check whether colors blended with the palette depend on the durations of the effects. */
+  public boolean usesDurations() {
+    return weighting != BlendWeighting.AMPLIFIER;
+  }
+
+  /** Check whether blending with the palette gives exactly the colors vanilla gives. */
+  public boolean isVanilla() {
+    return mode == BlendMode.VANILLA && weighting == BlendWeighting.AMPLIFIER && weights == null;
+  }
+
+  /**
+   * Get the fixed-point weight of an effect.
+   * 
+   * @param id The potion id
+   * @return The weight, {@link #WEIGHT_ONE} unless another one was configured
+   */
+  int getWeight(int id) {
+    return weights == null || id >= weights.length ? WEIGHT_ONE : weights[id];
+  }
+
+  /** Get the number of potion ids covered by the palette. */
+  public int size() {
+    return colors.length;
+  }
+
+  /** Get the effect colors, indexed by potion id. */
+  int[] getColors() {
+    return colors;
+  }
+
+  /** Get the components of the effect colors, three per potion id. */
+  int[] getComponents() {
+    return components;
+  }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+/**
+ * The ways in which the effects of a potion are weighted against each other when their colors are
+ * blended. Every weighting also applies the configured weight of each effect.
+ */
+public enum BlendWeighting {
+
+  /** Weight each effect by its amplifier, as PotionHelper.calcPotionLiquidColor does. */
+  AMPLIFIER("amplifier"),
+
+  /** Weight each effect by its amplifier and its duration. */
+  DURATION("duration"),
+
+  /** Use only the color of the effect with the greatest weight, longest first on ties. */
+  DOMINANT("dominant");
+
+  /** Name of the weighting in the configuration file. */
+  private final String name;
+
+  private BlendWeighting(String name) {
+    this.name = name;
+  }
+
+  /** Get the name of the weighting in the configuration file. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Look up a weighting by its name in the configuration file.
+   * 
+   * @param name The weighting's name
+   * @return The matching weighting, or {@link #AMPLIFIER} if the name is unknown
+   */
+  public static BlendWeighting fromName(String name) {
+    for (BlendWeighting weighting : values()) {
+      if (weighting.name.equalsIgnoreCase(name)) {
+        return weighting;
+      }
+    }
+    return AMPLIFIER;
+  }
+
+  /** Get the weighting that follows this one, wrapping around after the last. */
+  public BlendWeighting next() {
+    return values()[(ordinal() + 1) % values().length];
+  }
+
+}
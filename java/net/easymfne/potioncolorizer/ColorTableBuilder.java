@@ -0,0 +1,79 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Builds color tables for new blend settings on a background thread, so that changing the blend
+ * mode or weighting never blocks the render thread on blending every profile's table. Builds are
+ * requested with detached instances holding copies of the settings, and the latest built one is
+ * handed over to be swapped in on the render thread, the same way reloaded settings are.
+ */
+public class ColorTableBuilder {
+
+  /** The latest detached instance with built tables, waiting to be swapped in, or null. */
+  private final AtomicReference<LiteModPotionColorizer> built =
+      new AtomicReference<LiteModPotionColorizer>();
+
+  /** Thread the builds run on. */
+  private final ExecutorService executor;
+
+  /** Create a new builder. */
+  public ColorTableBuilder() {
+    this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, LiteModPotionColorizer.MOD_NAME + " table builder");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Request the color tables of a detached instance to be built.
+   * 
+   * @param settings Detached instance holding copies of the settings to build the tables for
+   */
+  public void submit(final LiteModPotionColorizer settings) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          settings.buildDetachedBlendTables();
+          built.set(settings);
+        } catch (RuntimeException e) {
+          LiteLoaderLogger.warning("Failed to build potion color tables: %s", e.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Take the detached instance whose tables were built last.
+   * 
+   * @return The instance, or null if no build finished since the last call
+   */
+  public LiteModPotionColorizer takeBuilt() {
+    return built.getAndSet(null);
+  }
+
+}
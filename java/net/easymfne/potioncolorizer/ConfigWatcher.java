@@ -0,0 +1,157 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Watches the configuration file for changes made outside the game and parses them on a background
+ * thread, along with the color tables for them. Bursts of file events are merged into one reload,
+ * files the mod wrote itself are ignored, and invalid files are logged and skipped so the previous
+ * settings stay in effect. The parsed settings and their tables are handed over to be applied on
+ * the render thread.
+ */
+public class ConfigWatcher implements Runnable {
+
+  /** Time without further events to wait for before reading a changed file. */
+  private static final long DEBOUNCE_MILLIS = 300;
+
+  /** The configuration file. */
+  private final File file;
+
+  /** Writer of the mod's own saves, which should not be reloaded. */
+  private final ConfigWriter writer;
+
+  /** Settings parsed from the latest change, waiting to be applied, or null if there are none. */
+  private final AtomicReference<LiteModPotionColorizer> reloaded =
+      new AtomicReference<LiteModPotionColorizer>();
+
+  /** Service watching the configuration folder. */
+  private WatchService watchService;
+
+  /**
+   * Create a new watcher.
+   * 
+   * @param file The configuration file
+   * @param writer Writer of the mod's own saves
+   */
+  public ConfigWatcher(File file, ConfigWriter writer) {
+    this.file = file;
+    this.writer = writer;
+  }
+
+  /** Start watching on a background thread. */
+  public void start() {
+    try {
+      Path folder = file.getParentFile().toPath();
+      Files.createDirectories(folder);
+      watchService = FileSystems.getDefault().newWatchService();
+      folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      LiteLoaderLogger.warning("Failed to watch %s: %s", file.getName(), e.getMessage());
+      return;
+    }
+    Thread thread = new Thread(this, LiteModPotionColorizer.MOD_NAME + " config watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Take the settings parsed from the latest change.
+   * 
+   * @return The settings, or null if nothing changed since the last call
+   */
+  public LiteModPotionColorizer takeReloaded() {
+    return reloaded.getAndSet(null);
+  }
+
+  /** Wait for changes to the configuration file and parse them, until the service closes. */
+  @Override
+  public void run() {
+    try {
+      while (true) {
+        boolean changed = drain(watchService.take());
+        WatchKey key;
+        while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+          changed |= drain(key);
+        }
+        if (changed) {
+          reload();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {}
+  }
+
+  /**
+   * Consume the events of a watch key and reset it.
+   * 
+   * @param key The watch key
+   * @return True if any event concerned the configuration file
+   */
+  private boolean drain(WatchKey key) {
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW
+          || file.getName().equals(String.valueOf(event.context()))) {
+        changed = true;
+      }
+    }
+    key.reset();
+    return changed;
+  }
+
+  /**
+   * Read and parse the configuration file and build the color tables for it, unless the mod wrote
+   * it itself.
+   */
+  private void reload() {
+    String text;
+    try {
+      text = new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+    } catch (IOException e) {
+      LiteLoaderLogger.warning("Failed to read %s: %s", file.getName(), e.getMessage());
+      return;
+    }
+    if (writer.isLastWritten(text)) {
+      return;
+    }
+    try {
+      LiteModPotionColorizer settings = LiteModPotionColorizer.parseSettings(text);
+      settings.buildDetachedTables();
+      reloaded.set(settings);
+    } catch (RuntimeException e) {
+      LiteLoaderLogger.warning("Ignoring invalid %s, keeping the previous settings: %s",
+          file.getName(), e.toString());
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Writes the configuration file on a background thread, so that saving never blocks the render
+ * thread on disk I/O. The settings are copied into a JSON tree when a save is requested, and saves
+ * requested in quick succession are merged into a single write of the latest copy. Each write goes
+ * to a temporary file that is then moved over the configuration file, so a crash never leaves a
+ * partly written file behind.
+ */
+public class ConfigWriter {
+
+  /** Delay before a requested save is written, during which further saves are merged into it. */
+  private static final long DELAY_MILLIS = 500;
+
+  /** Gson instance serializing only exposed fields, the same way LiteLoader does. */
+  private static final Gson GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation()
+      .setPrettyPrinting().create();
+
+  /** The configuration file. */
+  private final File file;
+
+  /** Text of the last file written, or null if none has been written yet. */
+  private volatile String lastWritten;
+
+  /** The latest settings waiting to be written, or null if there are none. */
+  private final AtomicReference<JsonElement> pending = new AtomicReference<JsonElement>();
+
+  /** Thread the writes run on. */
+  private final ScheduledExecutorService executor;
+
+  /** Task writing the pending settings. */
+  private final Runnable writeTask = new Runnable() {
+    @Override
+    public void run() {
+      writePending();
+    }
+  };
+
+  /**
+   * Create a new writer, which writes any pending settings when the game shuts down.
+   * 
+   * @param file The configuration file
+   */
+  public ConfigWriter(File file) {
+    this.file = file;
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, LiteModPotionColorizer.MOD_NAME + " config writer");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    Runtime.getRuntime().addShutdownHook(new Thread(writeTask));
+  }
+
+  /**
+   * Request the settings to be saved. The exposed fields are copied right away, so the settings
+   * may be changed again as soon as this returns.
+   * 
+   * @param settings The object holding the exposed settings
+   */
+  public void save(Object settings) {
+    if (pending.getAndSet(GSON.toJsonTree(settings)) == null) {
+      executor.schedule(writeTask, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Check whether a configuration file's text is what this writer last wrote, so that watchers can
+   * tell the mod's own saves apart from outside changes.
+   * 
+   * @param text The file's text
+   * @return True if the text matches the last file written
+   */
+  public boolean isLastWritten(String text) {
+    return text.equals(lastWritten);
+  }
+
+  /** Write the pending settings, if there are any. */
+  private synchronized void writePending() {
+    JsonElement settings = pending.getAndSet(null);
+    if (settings == null) {
+      return;
+    }
+    Path target = file.toPath();
+    Path temp = null;
+    try {
+      Files.createDirectories(target.getParent());
+      temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+      String text = GSON.toJson(settings);
+      Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), Charset.forName("UTF-8"));
+      try {
+        writer.write(text);
+      } finally {
+        writer.close();
+      }
+      lastWritten = text;
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException e) {
+      LiteLoaderLogger.warning("Failed to write %s: %s", file.getName(), e.getMessage());
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {}
+      }
+    }
+  }
+
+}
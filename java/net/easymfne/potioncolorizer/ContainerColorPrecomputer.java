@@ -0,0 +1,92 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.gui.inventory.GuiContainer;
+import net.minecraft.inventory.Container;
+import net.minecraft.inventory.Slot;
+import net.minecraft.item.ItemPotion;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Precomputes the colors of every potion in an open container in one batch, so that a chest full
+ * of potions with custom effects does not blend them all while its first frame renders. Polled
+ * once per frame, after the game ticks and before the frame renders; a batch covers every slot
+ * when a container screen opens, and afterwards only the slots whose stacks changed. Slot changes
+ * are found by comparing each slot's stack with the one last seen, because LiteLoader has no
+ * container or slot events to react to; for the 90 slots of a double chest this costs a few
+ * hundred nanoseconds per frame. Nothing is polled while colors cannot be precomputed. Must only be
+ * used from the render thread.
+ */
+public class ContainerColorPrecomputer {
+
+  /** Container whose slots were last checked, or null if none is open. */
+  private Container container;
+
+  /** Stacks in the container's slots when they were last checked. */
+  private ItemStack[] stacks = new ItemStack[0];
+
+  /**
+   * Check the screen being shown, and precompute the colors of the potions that appeared in its
+   * slots since the last check. While colors cannot be precomputed, the container is forgotten, so
+   * that every slot is checked again once they can.
+   * 
+   * @param screen The current screen, may be null
+   */
+  public void poll(GuiScreen screen) {
+    if (!(screen instanceof GuiContainer) || !LiteModPotionColorizer.isPrecomputing()) {
+      if (container != null) {
+        container = null;
+        Arrays.fill(stacks, null);
+      }
+      return;
+    }
+    Container current = ((GuiContainer) screen).inventorySlots;
+    List<?> slots = current.inventorySlots;
+    boolean opened = current != container;
+    container = current;
+    if (stacks.length < slots.size()) {
+      stacks = new ItemStack[slots.size()];
+    }
+    long start = 0;
+    boolean changed = false;
+    for (int i = 0; i < slots.size(); i++) {
+      ItemStack stack = ((Slot) slots.get(i)).getStack();
+      if (stack == stacks[i] && !opened) {
+        continue;
+      }
+      stacks[i] = stack;
+      if (stack != null && stack.getItem() instanceof ItemPotion) {
+        if (!changed) {
+          start = HookMetrics.PRECOMPUTE.start();
+          changed = true;
+        }
+        if (LiteModPotionColorizer.precomputeColor(stack)) {
+          HookMetrics.PRECOMPUTE.miss();
+        } else {
+          HookMetrics.PRECOMPUTE.hit();
+        }
+      }
+    }
+    if (changed) {
+      HookMetrics.PRECOMPUTE.stop(start);
+    }
+  }
+
+}
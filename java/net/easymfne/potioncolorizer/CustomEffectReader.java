@@ -0,0 +1,135 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.potion.Potion;
+
+/**
+ * Reads the parts of a potion's CustomPotionEffects list that matter for its color straight from
+ * the tags, without creating a PotionEffect for every entry. Entries are filtered the same way
+ * PotionEffect.readCustomPotionEffectFromNBT does. The values read are kept in reusable arrays, so
+ * a reader must only be used from one thread.
+ */
+public class CustomEffectReader {
+
+  /** NBT type ids of bytes and compounds. */
+  private static final int TAG_BYTE = 1, TAG_COMPOUND = 10;
+
+  /** Potion ids, amplifiers, durations and particle flags of the last effects read. */
+  private int[] ids = new int[16];
+  private int[] amplifiers = new int[16];
+  private int[] durations = new int[16];
+  private boolean[] particles = new boolean[16];
+
+  /** Number of effects read. */
+  private int count;
+
+  /** Content key of the effects read. */
+  private long key;
+
+  /**
+   * Read the custom effects of a potion's tag.
+   * 
+   * @param tag The potion's tag compound, which must contain a CustomPotionEffects list
+   * @param keyDurations Whether durations are part of the content key, which they only need to be
+   *        if the color depends on them
+   * @return False if the list is malformed and should be left to the vanilla code
+   */
+  public boolean read(NBTTagCompound tag, boolean keyDurations) {
+    NBTBase base = tag.getTag("CustomPotionEffects");
+    if (!(base instanceof NBTTagList)) {
+      return false;
+    }
+    NBTTagList list = (NBTTagList) base;
+    int size = list.tagCount();
+    if (size > 0 && list.getTagType() != TAG_COMPOUND) {
+      return false;
+    }
+    if (size > ids.length) {
+      grow(size);
+    }
+    count = 0;
+    key = 0xCBF29CE484222325L;
+    for (int i = 0; i < size; i++) {
+      NBTTagCompound effect = list.getCompoundTagAt(i);
+      int id = effect.getByte("Id");
+      if (id < 0 || id >= Potion.potionTypes.length || Potion.potionTypes[id] == null) {
+        continue;
+      }
+      boolean visible =
+          !effect.hasKey("ShowParticles", TAG_BYTE) || effect.getBoolean("ShowParticles");
+      add(id, effect.getByte("Amplifier"), effect.getInteger("Duration"), visible, keyDurations);
+    }
+    return true;
+  }
+
+  /**
+   * Add an effect to those read, and to the content key.
+   * 
+   * @param id Potion id of the effect
+   * @param amplifier Amplifier of the effect
+   * @param duration Duration of the effect, in ticks
+   * @param visible Whether the effect shows particles
+   * @param keyDurations Whether the duration is part of the content key
+   */
+  private void add(int id, int amplifier, int duration, boolean visible, boolean keyDurations) {
+    ids[count] = id;
+    amplifiers[count] = amplifier;
+    durations[count] = duration;
+    particles[count] = visible;
+    count++;
+    key = (key ^ id) * 0x100000001B3L;
+    key = (key ^ (amplifier & 0xFF)) * 0x100000001B3L;
+    if (keyDurations) {
+      key = (key ^ duration) * 0x100000001B3L;
+    }
+    key = (key ^ (visible ? 1 : 0)) * 0x100000001B3L;
+  }
+
+  /**
+   * Make room for the given number of effects.
+   * 
+   * @param size Number of effects
+   */
+  private void grow(int size) {
+    ids = new int[size];
+    amplifiers = new int[size];
+    durations = new int[size];
+    particles = new boolean[size];
+  }
+
+  /**
+   * Get the content key of the last effects read, for use with {@link EffectColorCache}.
+   * 
+   * @return Hash of the potion ids, amplifiers, particle flags and durations if they were keyed
+   */
+  public long getKey() {
+    return key;
+  }
+
+  /**
+   * Blend the liquid color of the last effects read.
+   * 
+   * @param palette Effect colors, their components and weights
+   * @return The blended liquid color
+   */
+  public int blend(BlendPalette palette) {
+    return EffectColorBlender.blend(palette, ids, amplifiers, durations, particles, count);
+  }
+
+}
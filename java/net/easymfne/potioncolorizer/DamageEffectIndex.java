@@ -0,0 +1,143 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.potion.PotionHelper;
+
+/**
+ * The effects of every potion damage value, deduplicated into distinct effect signatures. Working
+ * out which effects a damage value brews is expensive, so it is done only once; the colors of the
+ * signatures can then be blended again cheaply whenever the effect colors change.
+ */
+public class DamageEffectIndex {
+
+  /** Signature number of each damage value. */
+  private final int[] signatures;
+
+  /** Potion ids, amplifiers, durations and particle flags of each signature's effects. */
+  private final int[][] ids;
+  private final int[][] amplifiers;
+  private final int[][] durations;
+  private final boolean[][] particles;
+
+  private DamageEffectIndex(int[] signatures, int[][] ids, int[][] amplifiers, int[][] durations,
+      boolean[][] particles) {
+    this.signatures = signatures;
+    this.ids = ids;
+    this.amplifiers = amplifiers;
+    this.durations = durations;
+    this.particles = particles;
+  }
+
+  /**
+   * Work out the effects of every damage value covered by {@link PotionColorTable}.
+   * 
+   * @return The newly built index
+   */
+  @SuppressWarnings("unchecked")
+  public static DamageEffectIndex build() {
+    int[] signatures = new int[PotionColorTable.SIZE];
+    Map<String, Integer> known = new HashMap<String, Integer>();
+    List<PotionEffect[]> distinct = new ArrayList<PotionEffect[]>();
+    for (int damage = 0; damage < PotionColorTable.SIZE; damage++) {
+      List<PotionEffect> effects = PotionHelper.getPotionEffects(damage, false);
+      PotionEffect[] array =
+          effects == null ? new PotionEffect[0] : effects.toArray(new PotionEffect[effects.size()]);
+      StringBuilder key = new StringBuilder();
+      for (PotionEffect effect : array) {
+        key.append(effect.getPotionID()).append(':').append(effect.getAmplifier()).append(':')
+            .append(effect.getDuration()).append(':').append(effect.getIsShowParticles())
+            .append(';');
+      }
+      Integer signature = known.get(key.toString());
+      if (signature == null) {
+        signature = Integer.valueOf(distinct.size());
+        known.put(key.toString(), signature);
+        distinct.add(array);
+      }
+      signatures[damage] = signature.intValue();
+    }
+
+    int[][] ids = new int[distinct.size()][];
+    int[][] amplifiers = new int[distinct.size()][];
+    int[][] durations = new int[distinct.size()][];
+    boolean[][] particles = new boolean[distinct.size()][];
+    for (int i = 0; i < distinct.size(); i++) {
+      PotionEffect[] array = distinct.get(i);
+      ids[i] = new int[array.length];
+      amplifiers[i] = new int[array.length];
+      durations[i] = new int[array.length];
+      particles[i] = new boolean[array.length];
+      for (int j = 0; j < array.length; j++) {
+        ids[i][j] = array[j].getPotionID();
+        amplifiers[i][j] = array[j].getAmplifier();
+        durations[i][j] = array[j].getDuration();
+        particles[i][j] = array[j].getIsShowParticles();
+      }
+    }
+    return new DamageEffectIndex(signatures, ids, amplifiers, durations, particles);
+  }
+
+  /** Get the number of distinct effect signatures. */
+  public int getSignatureCount() {
+    return ids.length;
+  }
+
+  /**
+   * Get the effect signature of a damage value.
+   * 
+   * @param damage The potion damage value, which must be within {@link PotionColorTable#SIZE}
+   * @return The signature number
+   */
+  public int getSignature(int damage) {
+    return signatures[damage];
+  }
+
+  /**
+   * Check whether an effect signature has an effect of any of the given potions.
+   * 
+   * @param signature The signature number
+   * @param potionIds Potion ids to look for
+   * @return True if the signature has an effect of one of them
+   */
+  public boolean usesAny(int signature, BitSet potionIds) {
+    for (int id : ids[signature]) {
+      if (potionIds.get(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Blend the liquid color of an effect signature.
+   * 
+   * @param signature The signature number
+   * @param palette Effect colors, their components and weights
+   * @return The blended liquid color
+   */
+  public int blend(int signature, BlendPalette palette) {
+    return EffectColorBlender.blend(palette, ids[signature], amplifiers[signature],
+        durations[signature], particles[signature], ids[signature].length);
+  }
+
+}
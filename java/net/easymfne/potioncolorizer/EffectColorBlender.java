@@ -0,0 +1,384 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.List;
+
+import net.easymfne.potioncolorizer.color.LinearLight;
+import net.easymfne.potioncolorizer.color.PackedColor;
+import net.minecraft.potion.PotionEffect;
+
+/**
+ * Blends the liquid color of a set of potion effects, and allocates nothing. With a vanilla palette
+ * colors are blended exactly the way PotionHelper.calcPotionLiquidColor does, but effect colors are
+ * read from the palette by potion id instead of from the Potion instances. Other palettes average
+ * their precomputed components in fixed point, weighted as the palette says, and convert the
+ * average back to sRGB through a lookup table. Effects of potions registered after the palette was
+ * built are skipped until it is rebuilt.
+ */
+public final class EffectColorBlender {
+
+  /** Color of a potion without any effects. */
+  public static final int NO_EFFECTS_COLOR = 0x385DC6;
+
+  /** Number of fractional bits of fixed-point components, and the value of 1.0. */
+  private static final int SHIFT = LinearLight.SHIFT;
+  private static final int ONE = LinearLight.ONE;
+  private static final int HALF = ONE >> 1;
+
+  /** Linear sRGB to LMS, and LMS to OKLab, as defined by Bjorn Ottosson. */
+  private static final double[] RGB_TO_LMS = {0.4122214708, 0.5363325363, 0.0514459929,
+      0.2119034982, 0.6806995451, 0.1073969566, 0.0883024619, 0.2817188376, 0.6299787005};
+  private static final double[] LMS_TO_LAB = {0.2104542553, 0.7936177850, -0.0040720468,
+      1.9779984951, -2.4285922050, 0.4505937099, 0.0259040371, 0.7827717662, -0.8086757660};
+
+  /** OKLab to LMS, and LMS to linear sRGB, in fixed point. */
+  private static final int[] LAB_TO_LMS = toFixed(1.0, 0.3963377774, 0.2158037573, 1.0,
+      -0.1055613458, -0.0638541728, 1.0, -0.0894841775, -1.2914855480);
+  private static final int[] LMS_TO_RGB = toFixed(4.0767416621, -3.3077115913, 0.2309699292,
+      -1.2684380046, 2.6097574011, -0.3413193965, -0.0041960863, -0.7034186147, 1.7076147010);
+
+  private EffectColorBlender() {}
+
+  /**
+   * Blend the liquid color of the given effects.
+   * 
+   * @param palette Effect colors, their components and weights
+   * @param ids Potion ids of the effects
+   * @param amplifiers Amplifiers of the effects
+   * @param durations Durations of the effects, in ticks
+   * @param particles Whether each effect shows particles, only those that do are blended
+   * @param count Number of effects to read from the arrays
+   * @return The blended liquid color
+   */
+  public static int blend(BlendPalette palette, int[] ids, int[] amplifiers, int[] durations,
+      boolean[] particles, int count) {
+    if (count == 0) {
+      return NO_EFFECTS_COLOR;
+    }
+    if (palette.isVanilla()) {
+      return blendVanilla(palette.getColors(), ids, amplifiers, particles, count);
+    }
+    boolean dominant = palette.getWeighting() == BlendWeighting.DOMINANT;
+    int[] components = palette.getComponents();
+    long first = 0;
+    long second = 0;
+    long third = 0;
+    long total = 0;
+    int strongest = -1;
+    for (int i = 0; i < count; i++) {
+      long weight = particles[i] ? weightOf(palette, ids[i], amplifiers[i], durations[i]) : 0;
+      if (weight <= 0) {
+        continue;
+      } else if (dominant) {
+        if (weight > total) {
+          total = weight;
+          strongest = ids[i];
+        }
+      } else {
+        int offset = ids[i] * 3;
+        first += components[offset] * weight;
+        second += components[offset + 1] * weight;
+        third += components[offset + 2] * weight;
+        total += weight;
+      }
+    }
+    if (dominant) {
+      return strongest < 0 ? 0 : palette.getColors()[strongest];
+    }
+    return fromComponents(palette.getMode(), first, second, third, total);
+  }
+
+  /**
+   * Blend the liquid color of a list of effects, as returned by ItemPotion.getEffects.
+   * 
+   * @param palette Effect colors, their components and weights
+   * @param effects The effects, may be null
+   * @return The blended liquid color
+   */
+  public static int blend(BlendPalette palette, List<PotionEffect> effects) {
+    if (effects == null || effects.isEmpty()) {
+      return NO_EFFECTS_COLOR;
+    }
+    if (palette.isVanilla()) {
+      return blendVanilla(palette.getColors(), effects);
+    }
+    boolean dominant = palette.getWeighting() == BlendWeighting.DOMINANT;
+    int[] components = palette.getComponents();
+    long first = 0;
+    long second = 0;
+    long third = 0;
+    long total = 0;
+    int strongest = -1;
+    for (int i = 0; i < effects.size(); i++) {
+      PotionEffect effect = effects.get(i);
+      long weight =
+          effect.getIsShowParticles() ? weightOf(palette, effect.getPotionID(),
+              effect.getAmplifier(), effect.getDuration()) : 0;
+      if (weight <= 0) {
+        continue;
+      } else if (dominant) {
+        if (weight > total) {
+          total = weight;
+          strongest = effect.getPotionID();
+        }
+      } else {
+        int offset = effect.getPotionID() * 3;
+        first += components[offset] * weight;
+        second += components[offset + 1] * weight;
+        third += components[offset + 2] * weight;
+        total += weight;
+      }
+    }
+    if (dominant) {
+      return strongest < 0 ? 0 : palette.getColors()[strongest];
+    }
+    return fromComponents(palette.getMode(), first, second, third, total);
+  }
+
+  /**
+   * Work out the weight of an effect. Amplifiers count the way vanilla counts them, durations in
+   * whole seconds of at least one, and {@link BlendWeighting#DOMINANT} keeps the duration in the
+   * low bits to break ties.
+   * 
+   * @param palette Palette with the weighting and the effect weights
+   * @param id Potion id of the effect
+   * @param amplifier Amplifier of the effect
+   * @param duration Duration of the effect, in ticks
+   * @return The weight, or zero if the effect should not be blended
+   */
+  private static long weightOf(BlendPalette palette, int id, int amplifier, int duration) {
+    if (id >= palette.size() || amplifier < 0) {
+      return 0;
+    }
+    long weight = (long) (amplifier + 1) * palette.getWeight(id);
+    if (weight == 0 || palette.getWeighting() == BlendWeighting.AMPLIFIER) {
+      return weight;
+    }
+    int seconds = Math.max(1, Math.min(duration / 20, 0xFFFF));
+    return palette.getWeighting() == BlendWeighting.DURATION ? weight * seconds
+        : weight << 16 | seconds;
+  }
+
+  /**
+   * Blend the liquid color of the given effects the way vanilla does.
+   * 
+   * @param palette Liquid colors indexed by potion id
+   * @param ids Potion ids of the effects
+   * @param amplifiers Amplifiers of the effects
+   * @param particles Whether each effect shows particles, only those that do are blended
+   * @param count Number of effects to read from the arrays
+   * @return The blended liquid color
+   */
+  private static int blendVanilla(int[] palette, int[] ids, int[] amplifiers,
+      boolean[] particles, int count) {
+    float red = 0.0F;
+    float green = 0.0F;
+    float blue = 0.0F;
+    float total = 0.0F;
+    for (int i = 0; i < count; i++) {
+      if (particles[i] && ids[i] < palette.length) {
+        int color = palette[ids[i]];
+        for (int level = 0; level <= amplifiers[i]; level++) {
+          red += (float) PackedColor.red(color) / 255.0F;
+          green += (float) PackedColor.green(color) / 255.0F;
+          blue += (float) PackedColor.blue(color) / 255.0F;
+          total++;
+        }
+      }
+    }
+    return toColor(red, green, blue, total);
+  }
+
+  /**
+   * Blend the liquid color of a list of effects the way vanilla does.
+   * 
+   * @param palette Liquid colors indexed by potion id
+   * @param effects The effects, which must not be empty
+   * @return The blended liquid color
+   */
+  private static int blendVanilla(int[] palette, List<PotionEffect> effects) {
+    float red = 0.0F;
+    float green = 0.0F;
+    float blue = 0.0F;
+    float total = 0.0F;
+    for (int i = 0; i < effects.size(); i++) {
+      PotionEffect effect = effects.get(i);
+      if (effect.getIsShowParticles() && effect.getPotionID() < palette.length) {
+        int color = palette[effect.getPotionID()];
+        for (int level = 0; level <= effect.getAmplifier(); level++) {
+          red += (float) PackedColor.red(color) / 255.0F;
+          green += (float) PackedColor.green(color) / 255.0F;
+          blue += (float) PackedColor.blue(color) / 255.0F;
+          total++;
+        }
+      }
+    }
+    return toColor(red, green, blue, total);
+  }
+
+  /**
+   * Average the accumulated color channels and pack them into a color.
+   * 
+   * @param red Accumulated red channel
+   * @param green Accumulated green channel
+   * @param blue Accumulated blue channel
+   * @param total Number of accumulated samples
+   * @return The packed color, or black if nothing was accumulated
+   */
+  private static int toColor(float red, float green, float blue, float total) {
+    if (total == 0.0F) {
+      return 0;
+    }
+    red = red / total * 255.0F;
+    green = green / total * 255.0F;
+    blue = blue / total * 255.0F;
+    return PackedColor.pack((int) red, (int) green, (int) blue);
+  }
+
+  /**
+   * Work out the fixed-point components of a color in the space of a blend mode: sRGB or linear
+   * light red, green and blue, or OKLab lightness, a and b. Only done when a palette is created, so
+   * it may use floating point.
+   * 
+   * @param mode The blend mode
+   * @param color The color
+   * @param components Array to store the three components in
+   * @param offset Index of the first component in the array
+   */
+  static void toComponents(BlendMode mode, int color, int[] components, int offset) {
+    if (mode == BlendMode.VANILLA) {
+      components[offset] = (PackedColor.red(color) * ONE + 127) / 255;
+      components[offset + 1] = (PackedColor.green(color) * ONE + 127) / 255;
+      components[offset + 2] = (PackedColor.blue(color) * ONE + 127) / 255;
+      return;
+    }
+    int red = LinearLight.toLinear(PackedColor.red(color));
+    int green = LinearLight.toLinear(PackedColor.green(color));
+    int blue = LinearLight.toLinear(PackedColor.blue(color));
+    if (mode == BlendMode.LINEAR) {
+      components[offset] = red;
+      components[offset + 1] = green;
+      components[offset + 2] = blue;
+      return;
+    }
+    double l = Math.cbrt(dot(RGB_TO_LMS, 0, red, green, blue) / ONE);
+    double m = Math.cbrt(dot(RGB_TO_LMS, 3, red, green, blue) / ONE);
+    double s = Math.cbrt(dot(RGB_TO_LMS, 6, red, green, blue) / ONE);
+    components[offset] = (int) Math.round(dot(LMS_TO_LAB, 0, l, m, s) * ONE);
+    components[offset + 1] = (int) Math.round(dot(LMS_TO_LAB, 3, l, m, s) * ONE);
+    components[offset + 2] = (int) Math.round(dot(LMS_TO_LAB, 6, l, m, s) * ONE);
+  }
+
+  /**
+   * Multiply a row of a matrix with a vector.
+   * 
+   * @param matrix Entries of the matrix, row by row
+   * @param row Index of the row's first entry
+   * @param x First entry of the vector
+   * @param y Second entry of the vector
+   * @param z Third entry of the vector
+   * @return The product
+   */
+  private static double dot(double[] matrix, int row, double x, double y, double z) {
+    return matrix[row] * x + matrix[row + 1] * y + matrix[row + 2] * z;
+  }
+
+  /**
+   * Average accumulated fixed-point components and convert them back to a color.
+   * 
+   * @param mode The blend mode the components belong to
+   * @param first Accumulated first component
+   * @param second Accumulated second component
+   * @param third Accumulated third component
+   * @param total Sum of the weights
+   * @return The packed color, or black if nothing was accumulated
+   */
+  private static int fromComponents(BlendMode mode, long first, long second, long third,
+      long total) {
+    if (total == 0) {
+      return 0;
+    }
+    int x = average(first, total);
+    int y = average(second, total);
+    int z = average(third, total);
+    if (mode == BlendMode.VANILLA) {
+      return PackedColor.pack(toChannel(x), toChannel(y), toChannel(z));
+    } else if (mode == BlendMode.OKLAB) {
+      long l = cube(multiply(LAB_TO_LMS, 0, x, y, z));
+      long m = cube(multiply(LAB_TO_LMS, 3, x, y, z));
+      long s = cube(multiply(LAB_TO_LMS, 6, x, y, z));
+      x = multiply(LMS_TO_RGB, 0, l, m, s);
+      y = multiply(LMS_TO_RGB, 3, l, m, s);
+      z = multiply(LMS_TO_RGB, 6, l, m, s);
+    }
+    return LinearLight.toRgb(x, y, z);
+  }
+
+  /**
+   * Divide an accumulated component by the sum of the weights, rounding to the nearest value.
+   * 
+   * @param sum Accumulated component
+   * @param total Sum of the weights, which must be positive
+   * @return The average
+   */
+  private static int average(long sum, long total) {
+    return (int) ((sum >= 0 ? sum + total / 2 : sum - total / 2) / total);
+  }
+
+  /**
+   * Multiply a row of a fixed-point matrix with a fixed-point vector.
+   * 
+   * @param matrix Entries of the matrix, row by row
+   * @param row Index of the row's first entry
+   * @param x First entry of the vector
+   * @param y Second entry of the vector
+   * @param z Third entry of the vector
+   * @return The fixed-point product
+   */
+  private static int multiply(int[] matrix, int row, long x, long y, long z) {
+    return (int) ((matrix[row] * x + matrix[row + 1] * y + matrix[row + 2] * z + HALF) >> SHIFT);
+  }
+
+  /** Cube a fixed-point value. */
+  private static long cube(int value) {
+    return ((((long) value * value + HALF) >> SHIFT) * value + HALF) >> SHIFT;
+  }
+
+  /**
+   * Convert a fixed-point sRGB channel value to an 8-bit one, clamping it to the gamut.
+   * 
+   * @param channel The fixed-point channel value
+   * @return The 8-bit channel value
+   */
+  private static int toChannel(int channel) {
+    return ((channel < 0 ? 0 : channel > ONE ? ONE : channel) * 255 + HALF) >> SHIFT;
+  }
+
+  /**
+   * Convert a matrix to fixed point.
+   * 
+   * @param matrix Entries of the matrix, row by row
+   * @return The fixed-point entries
+   */
+  private static int[] toFixed(double... matrix) {
+    int[] fixed = new int[matrix.length];
+    for (int i = 0; i < matrix.length; i++) {
+      fixed[i] = (int) Math.round(matrix[i] * ONE);
+    }
+    return fixed;
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+/**
+ * Bounded cache of liquid colors for potions carrying custom effects, keyed by a hash of the effect
+ * content. Entries are grouped into small sets, and the least recently used entry of a set is
+ * evicted when a new one has to be stored there. Every entry remembers the generation it was stored
+ * in, so the whole cache can be invalidated by starting a new generation instead of clearing it.
+ * Lookups and stores allocate nothing. Not thread-safe; intended for use from the render thread
+ * only.
+ */
+public class EffectColorCache {
+
+  /** Value returned by {@link #get(long)} when no color is cached for a key. */
+  public static final int MISSING = -1;
+
+  /** Smallest number of entries a cache can hold. */
+  public static final int MINIMUM_SIZE = 4;
+
+  /** Number of entries in each set. */
+  private static final int WAYS = 4;
+
+  /**
+   * Cached keys, colors, last access stamps and generations, grouped by set. An entry with a stamp
+   * of zero or from an earlier generation is unused.
+   */
+  private final long[] keys;
+  private final int[] colors;
+  private final long[] stamps;
+  private final int[] generations;
+
+  /** Mask selecting a set from a mixed key. */
+  private final int setMask;
+
+  /** Access clock used to order the entries within a set. */
+  private long clock;
+
+  /** Generation of the entries currently in use. */
+  private int generation;
+
+  /** Lookup statistics. */
+  private long hits;
+  private long misses;
+
+  /**
+   * Create a new, empty cache.
+   * 
+   * @param maximumSize Maximum number of entries, rounded down to a power of two
+   */
+  public EffectColorCache(int maximumSize) {
+    int size = capacityFor(maximumSize);
+    keys = new long[size];
+    colors = new int[size];
+    stamps = new long[size];
+    generations = new int[size];
+    setMask = size / WAYS - 1;
+  }
+
+  /**
+   * Get the number of entries a cache created with the given maximum size will actually hold.
+   * 
+   * @param maximumSize Requested maximum number of entries
+   * @return The requested size rounded down to a power of two, but at least {@link #MINIMUM_SIZE}
+   */
+  public static int capacityFor(int maximumSize) {
+    return Integer.highestOneBit(Math.max(maximumSize, MINIMUM_SIZE));
+  }
+
+  /**
+   * Find the first slot of the set that a key belongs to.
+   * 
+   * @param key The content key
+   * @return Index of the set's first slot
+   */
+  private int setOf(long key) {
+    long mixed = key * 0x9E3779B97F4A7C15L;
+    return ((int) (mixed >>> 32) & setMask) * WAYS;
+  }
+
+  /**
+   * Look up the color cached for a key.
+   * 
+   * @param key The content key
+   * @return The cached color, or {@link #MISSING} if there is none
+   */
+  public int get(long key) {
+    int start = setOf(key);
+    for (int i = start; i < start + WAYS; i++) {
+      if (stampOf(i) != 0 && keys[i] == key) {
+        stamps[i] = ++clock;
+        hits++;
+        return colors[i];
+      }
+    }
+    misses++;
+    return MISSING;
+  }
+
+  /**
+   * Store the color of a key, evicting the least recently used entry of its set if it is full.
+   * 
+   * @param key The content key
+   * @param color The liquid color
+   */
+  public void put(long key, int color) {
+    int start = setOf(key);
+    int victim = start;
+    for (int i = start; i < start + WAYS; i++) {
+      if (stampOf(i) != 0 && keys[i] == key) {
+        victim = i;
+        break;
+      } else if (stampOf(i) < stampOf(victim)) {
+        victim = i;
+      }
+    }
+    keys[victim] = key;
+    colors[victim] = color;
+    stamps[victim] = ++clock;
+    generations[victim] = generation;
+  }
+
+  /**
+   * Get the last access stamp of an entry.
+   * 
+   * @param index Index of the entry
+   * @return The stamp, or zero if the entry is unused
+   */
+  private long stampOf(int index) {
+    return generations[index] == generation ? stamps[index] : 0L;
+  }
+
+  /**
+   * Invalidate every entry of the cache by starting a new generation, without touching the
+   * entries. Statistics are kept.
+   */
+  public void invalidate() {
+    generation++;
+  }
+
+  /** Get the maximum number of entries the cache can hold. */
+  public int getMaximumSize() {
+    return stamps.length;
+  }
+
+  /** Get the number of lookups that found a cached color. */
+  public long getHits() {
+    return hits;
+  }
+
+  /** Get the number of lookups that found no cached color. */
+  public long getMisses() {
+    return misses;
+  }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+/**
+ * Counters and sampled latencies of one of the mod's hot paths. Collection is switched on and off
+ * for all hooks at once, and costs a single volatile read per call while switched off. The hooks
+ * themselves are only counted by the timed targets of their {@link SwitchableHook}, so while it is
+ * off they skip even that.
+ */
+public class HookMetrics {
+
+  /** Metrics of the recolor hook. */
+  public static final HookMetrics RECOLOR = new HookMetrics("recolor", 64);
+
+  /** Metrics of the deglint hook. */
+  public static final HookMetrics HAS_EFFECT = new HookMetrics("has_effect", 64);
+
+  /** Metrics of rebuilding the color tables, which is rare enough to time every call. */
+  public static final HookMetrics REBUILD_TABLES = new HookMetrics("rebuild_tables", 1);
+
+  /** Metrics of precomputing the potion colors of an open container, timed every batch. */
+  public static final HookMetrics PRECOMPUTE = new HookMetrics("precompute_slots", 1);
+
+  /** Metrics of every hook, in reporting order. */
+  private static final HookMetrics[] ALL = {RECOLOR, HAS_EFFECT, REBUILD_TABLES, PRECOMPUTE};
+
+  /** Value returned by {@link #start()} when the call is not timed. */
+  private static final long NOT_TIMED = Long.MIN_VALUE;
+
+  /** Whether metrics are being collected. */
+  private static volatile boolean enabled;
+
+  /** Name of the hook in reports. */
+  private final String name;
+
+  /** Calls, calls that left the result to vanilla, and colors found or not found precomputed. */
+  private final StripedCounter calls = new StripedCounter();
+  private final StripedCounter skipped = new StripedCounter();
+  private final StripedCounter hits = new StripedCounter();
+  private final StripedCounter misses = new StripedCounter();
+
+  /** Sampled latencies of the calls. */
+  private final LatencyHistogram latency;
+
+  private HookMetrics(String name, int sampleInterval) {
+    this.name = name;
+    this.latency = new LatencyHistogram(sampleInterval);
+  }
+
+  /** Get the metrics of every hook. */
+  public static HookMetrics[] getAll() {
+    return ALL.clone();
+  }
+
+  /** Check whether metrics are being collected. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switch metrics collection on or off. Collected values are kept while switched off.
+   * 
+   * @param enabled Whether metrics should be collected
+   */
+  public static void setEnabled(boolean enabled) {
+    HookMetrics.enabled = enabled;
+  }
+
+  /**
+   * Count a call to the hook and start timing it if it is sampled.
+   * 
+   * @return Value to pass to {@link #stop(long)}
+   */
+  public long start() {
+    if (!enabled) {
+      return NOT_TIMED;
+    }
+    calls.increment();
+    return latency.sample() ? System.nanoTime() : NOT_TIMED;
+  }
+
+  /**
+   * Finish timing a call to the hook.
+   * 
+   * @param start Value returned by {@link #start()}
+   */
+  public void stop(long start) {
+    if (start != NOT_TIMED) {
+      latency.record(System.nanoTime() - start);
+    }
+  }
+
+  /** Count a call that left the result to the vanilla code. */
+  public void skipped() {
+    if (enabled) {
+      skipped.increment();
+    }
+  }
+
+  /** Count a color that was found precomputed or cached. */
+  public void hit() {
+    if (enabled) {
+      hits.increment();
+    }
+  }
+
+  /** Count a color that had to be blended. */
+  public void miss() {
+    if (enabled) {
+      misses.increment();
+    }
+  }
+
+  /** Get the name of the hook in reports. */
+  public String getName() {
+    return name;
+  }
+
+  /** Get the number of calls counted. */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /** Get the number of calls that left the result to the vanilla code. */
+  public long getSkipped() {
+    return skipped.sum();
+  }
+
+  /** Get the number of colors found precomputed or cached. */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /** Get the number of colors that had to be blended. */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** Get the sampled latencies of the calls. */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /** Discard everything collected so far. */
+  public void reset() {
+    calls.reset();
+    skipped.reset();
+    hits.reset();
+    misses.reset();
+    latency.reset();
+  }
+
+}
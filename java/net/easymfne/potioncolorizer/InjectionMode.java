@@ -0,0 +1,124 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+
+import net.minecraft.launchwrapper.Launch;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * The ways in which the hooks can be injected into ItemPotion. Classes are transformed long before
+ * the mod's configuration is loaded, so the mode is read straight from the configuration file (or
+ * the potioncolorizer.injection system property) the first time it is needed, and changes to it
+ * only take effect after a restart.
+ */
+public enum InjectionMode {
+
+  /** Dispatch the hooks through LiteLoader's Event and ReturnEventInfo machinery. */
+  EVENT("event"),
+
+  /** Call the hooks directly at the head of the methods, returning early if they have a value. */
+  DIRECT("direct");
+
+  /** Name of the system property that overrides the configured mode. */
+  public static final String PROPERTY = "potioncolorizer.injection";
+
+  /** The mode in effect for this session. */
+  private static InjectionMode current;
+
+  /** Name of the mode in the configuration file. */
+  private final String name;
+
+  private InjectionMode(String name) {
+    this.name = name;
+  }
+
+  /** Get the name of the mode in the configuration file. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Look up a mode by its name in the configuration file.
+   * 
+   * @param name The mode's name
+   * @return The matching mode, or {@link #EVENT} if the name is unknown
+   */
+  public static InjectionMode fromName(String name) {
+    for (InjectionMode mode : values()) {
+      if (mode.name.equalsIgnoreCase(name)) {
+        return mode;
+      }
+    }
+    return EVENT;
+  }
+
+  /**
+   * Get the mode in effect for this session, reading it on first use.
+   * 
+   * @return The injection mode
+   */
+  public static synchronized InjectionMode getCurrent() {
+    if (current == null) {
+      String name = System.getProperty(PROPERTY);
+      current = fromName(name != null ? name : readConfiguredName());
+      LiteLoaderLogger.info("%s will inject its hooks in %s mode.",
+          LiteModPotionColorizer.MOD_NAME, current.name);
+    }
+    return current;
+  }
+
+  /**
+   * Read the configured mode's name from the configuration file, without going through LiteLoader.
+   * 
+   * @return The configured name, or null if none could be read
+   */
+  private static String readConfiguredName() {
+    if (Launch.minecraftHome == null) {
+      return null;
+    }
+    File file = new File(new File(new File(Launch.minecraftHome, "liteconfig"), "common"),
+        LiteModPotionColorizer.CONFIG_FILE);
+    if (!file.isFile()) {
+      return null;
+    }
+    Reader reader = null;
+    try {
+      reader = new FileReader(file);
+      JsonElement root = new JsonParser().parse(reader);
+      if (root.isJsonObject()) {
+        JsonElement mode = ((JsonObject) root).get("injection_mode");
+        return mode != null && mode.isJsonPrimitive() ? mode.getAsString() : null;
+      }
+    } catch (Exception e) {
+      LiteLoaderLogger.warning("Failed to read injection mode: " + e.getClass().getName());
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (Exception e) {}
+      }
+    }
+    return null;
+  }
+
+}
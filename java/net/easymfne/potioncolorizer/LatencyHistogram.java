@@ -0,0 +1,132 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of call latencies with power of two buckets, recording only one call in every so
+ * many so that timing stays cheap compared to the calls being timed. Percentiles are reported as
+ * the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+  /** Number of buckets; bucket n holds latencies of n significant bits. */
+  private static final int BUCKETS = 64;
+
+  /** Mask selecting which calls are sampled. */
+  private final int sampleMask;
+
+  /** Calls seen since creation. Updated without synchronization, as it only drives sampling. */
+  private int tick;
+
+  /** Number of samples in each bucket. */
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  /** Number and total latency of the samples recorded. */
+  private final StripedCounter samples = new StripedCounter();
+  private final StripedCounter totalNanos = new StripedCounter();
+
+  /** Highest latency recorded. */
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Create a new histogram.
+   * 
+   * @param sampleInterval Record one call in this many, rounded down to a power of two
+   */
+  public LatencyHistogram(int sampleInterval) {
+    sampleMask = Integer.highestOneBit(Math.max(1, sampleInterval)) - 1;
+  }
+
+  /** Check whether the current call should be timed. */
+  public boolean sample() {
+    return (++tick & sampleMask) == 0;
+  }
+
+  /**
+   * Record the latency of a sampled call.
+   * 
+   * @param nanos The call's latency in nanoseconds
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.getAndIncrement(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+    samples.increment();
+    totalNanos.add(nanos);
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /** Get the number of samples recorded. */
+  public long getSamples() {
+    return samples.sum();
+  }
+
+  /** Get the mean latency of the samples in nanoseconds, or 0 if there are none. */
+  public long getMeanNanos() {
+    long count = samples.sum();
+    return count == 0 ? 0 : totalNanos.sum() / count;
+  }
+
+  /** Get the highest latency recorded in nanoseconds. */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Get an upper bound of a latency percentile.
+   * 
+   * @param percentile The percentile, between 0 and 100
+   * @return Upper bound of the bucket holding the percentile in nanoseconds, or 0 if there are no
+   *         samples
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= Math.max(1, rank)) {
+        return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /** Discard all samples. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0L);
+    }
+    samples.reset();
+    totalNanos.reset();
+    maxNanos.set(0L);
+  }
+
+}
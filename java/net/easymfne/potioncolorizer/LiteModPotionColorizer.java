@@ -15,17 +15,31 @@
 package net.easymfne.potioncolorizer;
 
 import java.io.File;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.easymfne.potioncolorizer.gui.GuiConfigPanel;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.settings.KeyBinding;
 import net.minecraft.item.ItemPotion;
 import net.minecraft.item.ItemStack;
 import net.minecraft.potion.Potion;
 import net.minecraft.potion.PotionHelper;
 
+import org.lwjgl.input.Keyboard;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.InstanceCreator;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import com.mumfrey.liteloader.Configurable;
@@ -46,16 +60,69 @@ import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
  * 
  * @author Eric Hildebrand
  */
-@ExposableOptions(strategy = ConfigStrategy.Unversioned, filename = "potioncolorizer.config.json")
+@ExposableOptions(strategy = ConfigStrategy.Unversioned,
+    filename = LiteModPotionColorizer.CONFIG_FILE)
 public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Configurable {
 
   /** Name/Version information. */
   public static final String MOD_NAME = "PotionColorizer";
   public static final String MOD_VERSION = "1.1.1";
 
+  /** Name of the color profile created for configs without any. */
+  public static final String DEFAULT_PROFILE = "default";
+
+  /** Name of the configuration file in LiteLoader's common config folder. */
+  public static final String CONFIG_FILE = "potioncolorizer.config.json";
+
   /** Modification instance. */
   public static LiteModPotionColorizer instance;
-  public static Map<String, Integer> defaultColors;
+
+  /** Default liquid colors indexed by potion id, saved once initialization completes. */
+  public static PotionColorStore defaultColors;
+
+  /** Snapshot of the registered potions, indexed by id, taken once initialization completes. */
+  private static Potion[] potions;
+
+  /** Potion registry array and number of potions in it when the snapshot was taken. */
+  private static Potion[] registryArray;
+  private static int registryCount;
+
+  /**
+   * Copies of the potion snapshot and default colors, with the effects of every damage value, that
+   * color tables are built from. Published by the render thread whenever the potions change, so
+   * that tables can be built on other threads.
+   */
+  private static volatile TableSources tableSources;
+
+  /** Color tables of the active profile and without custom colors, rebuilt when colors change. */
+  private static PotionColorTable customTable;
+  private static PotionColorTable defaultTable;
+
+  /** The color table in effect, read by the recolor hook. */
+  private static volatile PotionColorTable colorTable;
+
+  /** Whether potions with custom effects are colored by their effects rather than damage value. */
+  private static boolean recolorCustomEffects;
+
+  /** Switchable hooks for deglinting and recoloring, updated whenever the settings change. */
+  private static final SwitchableHook deglintHook = SwitchableHook.constant(0, findHook(
+      "timeHasEffect", ItemStack.class));
+  private static final SwitchableHook recolorHook = new SwitchableHook(findHook(
+      "computePotionColor", ItemStack.class, Integer.TYPE), findHook("timePotionColor",
+      ItemStack.class, Integer.TYPE));
+
+  /** Invokers of the switchable hooks, kept static final so the JIT can inline their targets. */
+  private static final MethodHandle deglintInvoker = deglintHook.getInvoker();
+  private static final MethodHandle recolorInvoker = recolorHook.getInvoker();
+
+  /** Reader for the custom effects of potions being recolored. */
+  private static final CustomEffectReader effectReader = new CustomEffectReader();
+
+  /**
+   * Value returned by the direct hooks when the vanilla method should carry on as usual. Must stay
+   * -1, which {@link PotionColorizerDirectTransformer} compares against.
+   */
+  public static final int NO_VALUE = -1;
 
   /**
    * Modify the return value (on the fly) of the method in ItemPotion that examines an ItemStack and
@@ -65,7 +132,7 @@ public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Co
    * @param itemStack The potion ItemStack
    */
   public static void hasEffect(ReturnEventInfo<ItemPotion, Boolean> event, ItemStack itemStack) {
-    if (instance.deglintPotions) {
+    if (getHasEffect(itemStack) != NO_VALUE) {
       event.setReturnValue(Boolean.FALSE);
     }
   }
@@ -80,12 +147,194 @@ public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Co
    */
   public static void recolorPotion(ReturnEventInfo<ItemPotion, Integer> event, ItemStack itemStack,
       int pass) {
-    if (instance.recolorPotions && pass == 0) {
-      event.setReturnValue(PotionHelper.calcPotionLiquidColor(((ItemPotion) itemStack.getItem())
-          .getEffects(itemStack)));
+    int color = getPotionColor(itemStack, pass);
+    if (color != NO_VALUE) {
+      event.setReturnValue(color);
+    }
+  }
+
+  /**
+   * Determine whether a potion ItemStack has effects, as far as rendering the glint overlay goes.
+   * Called directly from ItemPotion.hasEffect in {@link InjectionMode#DIRECT} mode.
+   * 
+   * @param itemStack The potion ItemStack
+   * @return 0 if the potion should not have a glint, or {@link #NO_VALUE} to leave it to vanilla
+   */
+  public static int getHasEffect(ItemStack itemStack) {
+    try {
+      return (int) deglintInvoker.invokeExact(itemStack);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  /**
+   * Determine the color of a potion for a render pass. Called directly from
+   * ItemPotion.getColorFromItemStack in {@link InjectionMode#DIRECT} mode.
+   * 
+   * @param itemStack The potion's ItemStack
+   * @param pass The render pass number
+   * @return The potion's color, or {@link #NO_VALUE} to leave it to vanilla
+   */
+  public static int getPotionColor(ItemStack itemStack, int pass) {
+    try {
+      return (int) recolorInvoker.invokeExact(itemStack, pass);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  /**
+   * Deglint hook implementation while metrics are collected, which counts the call.
+   * 
+   * @param itemStack The potion ItemStack
+   * @return 0, so that the potion has no glint
+   */
+  private static int timeHasEffect(ItemStack itemStack) {
+    HookMetrics.HAS_EFFECT.stop(HookMetrics.HAS_EFFECT.start());
+    return 0;
+  }
+
+  /**
+   * Recolor hook implementation while metrics are collected, which samples the time of
+   * {@link #computePotionColor(ItemStack, int)} and counts whether it left the color to vanilla,
+   * found it precomputed or cached, or had to blend it. Whether a potion with custom effects was
+   * found cached is told by the hits counted by the table's effect color cache.
+   * 
+   * @param itemStack The potion's ItemStack
+   * @param pass The render pass number
+   * @return The potion's color, or {@link #NO_VALUE} to leave it to vanilla
+   */
+  private static int timePotionColor(ItemStack itemStack, int pass) {
+    PotionColorTable table = colorTable;
+    long cacheHits = table != null ? table.getEffectCache().getHits() : 0;
+    int color;
+    long start = HookMetrics.RECOLOR.start();
+    try {
+      color = computePotionColor(itemStack, pass);
+    } finally {
+      HookMetrics.RECOLOR.stop(start);
+    }
+    if (color == NO_VALUE) {
+      HookMetrics.RECOLOR.skipped();
+    } else if (recolorCustomEffects && hasCustomEffects(itemStack) ? table.getEffectCache()
+        .getHits() != cacheHits : table.contains(itemStack.getMetadata())) {
+      HookMetrics.RECOLOR.hit();
+    } else {
+      HookMetrics.RECOLOR.miss();
+    }
+    return color;
+  }
+
+  /**
+   * Compute the color of a potion for a render pass while recoloring or custom colors are enabled.
+   * Only the necessary render pass is recolored, with the colors of the table in effect. Potions
+   * without custom effects are colored from the precomputed table, and potions with custom effects
+   * from the table's effect color cache, rather than blending their effects again. Custom effects
+   * are read straight from the potion's tag, and only malformed tags go through
+   * ItemPotion.getEffects. While recoloring is disabled, every potion is colored by its damage
+   * value the way vanilla does.
+   * 
+   * @param itemStack The potion's ItemStack
+   * @param pass The render pass number
+   * @return The potion's color, or {@link #NO_VALUE} to leave it to vanilla
+   */
+  @SuppressWarnings("unchecked")
+  private static int computePotionColor(ItemStack itemStack, int pass) {
+    PotionColorTable table = colorTable;
+    if (pass != 0 || table == null) {
+      return NO_VALUE;
+    }
+    if (recolorCustomEffects && hasCustomEffects(itemStack)) {
+      if (effectReader.read(itemStack.getTagCompound(), table.usesDurations())) {
+        EffectColorCache cache = table.getEffectCache();
+        long key = effectReader.getKey();
+        int color = cache.get(key);
+        if (color == EffectColorCache.MISSING) {
+          color = table.blend(effectReader);
+          cache.put(key, color);
+        }
+        return color;
+      }
+      return table.blend(((ItemPotion) itemStack.getItem()).getEffects(itemStack));
+    }
+    int damage = itemStack.getMetadata();
+    if (table.contains(damage)) {
+      return table.getColor(damage);
+    }
+    return table.blend(PotionHelper.getPotionEffects(damage, false));
+  }
+
+  /**
+   * Check whether the colors of potions can be precomputed at all, which they can only be while
+   * potions with custom effects are colored from the effect color cache.
+   * 
+   * @return True if precomputing colors can save blending them while rendering
+   */
+  static boolean isPrecomputing() {
+    return colorTable != null && recolorHook.isEnabled() && recolorCustomEffects;
+  }
+
+  /**
+   * Make sure the color of a potion is precomputed, so that rendering it needs no blending. Potions
+   * without custom effects are covered by the color table, so only the colors of potions with
+   * custom effects are blended and stored in the table's effect color cache. Must only be called
+   * from the render thread.
+   * 
+   * @param itemStack The potion's ItemStack
+   * @return True if the color had to be blended
+   */
+  static boolean precomputeColor(ItemStack itemStack) {
+    PotionColorTable table = colorTable;
+    if (!isPrecomputing() || !hasCustomEffects(itemStack)
+        || !effectReader.read(itemStack.getTagCompound(), table.usesDurations())) {
+      return false;
+    }
+    EffectColorCache cache = table.getEffectCache();
+    long key = effectReader.getKey();
+    if (cache.get(key) != EffectColorCache.MISSING) {
+      return false;
+    }
+    cache.put(key, table.blend(effectReader));
+    return true;
+  }
+
+  /**
+   * Look up one of the mod's static hook implementations.
+   * 
+   * @param name Name of the method
+   * @param parameterTypes Parameter types of the method, which must return an int
+   * @return Handle of the method
+   */
+  private static MethodHandle findHook(String name, Class<?>... parameterTypes) {
+    try {
+      return MethodHandles.lookup().findStatic(LiteModPotionColorizer.class, name,
+          MethodType.methodType(Integer.TYPE, parameterTypes));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Missing hook implementation " + name, e);
     }
   }
 
+  /**
+   * Check whether a potion ItemStack defines its own effects, in which case its color cannot be
+   * looked up by damage value.
+   * 
+   * @param itemStack The potion's ItemStack
+   * @return True if the stack carries a custom effect list
+   */
+  private static boolean hasCustomEffects(ItemStack itemStack) {
+    return itemStack.hasTagCompound()
+        && itemStack.getTagCompound().hasKey("CustomPotionEffects", 9);
+  }
+
   /** Whether or not to remove glint overlay from potions. */
   @Expose
   @SerializedName("deglint_potions")
@@ -101,10 +350,103 @@ public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Co
   @SerializedName("custom_colors_enabled")
   public boolean customColors = false;
 
-  /** Custom potion colors map. */
+  /** Custom potion colors of configs written before profiles, moved to the default profile. */
   @Expose
   @SerializedName("custom_potion_colors")
-  public Map<String, Integer> customPotionColors = new HashMap<String, Integer>();
+  private Map<String, Integer> customColorNames;
+
+  /** Custom potion colors of each profile keyed by potion name, as in the config file. */
+  @Expose
+  @SerializedName("profiles")
+  private Map<String, Map<String, Integer>> profileColorNames =
+      new LinkedHashMap<String, Map<String, Integer>>();
+
+  /** Name of the color profile in use. */
+  @Expose
+  @SerializedName("active_profile")
+  private String activeProfile = DEFAULT_PROFILE;
+
+  /** Custom potion colors of each profile indexed by potion id, translated once init completes. */
+  private final Map<String, PotionColorStore> profileColors =
+      new LinkedHashMap<String, PotionColorStore>();
+
+  /** Prebuilt color tables of each profile. */
+  private final Map<String, PotionColorTable> profileTables =
+      new LinkedHashMap<String, PotionColorTable>();
+
+  /** Custom potion colors of the active profile. */
+  public PotionColorStore customPotionColors;
+
+  /** How effect colors are blended, "vanilla", "linear" or "oklab". */
+  @Expose
+  @SerializedName("blend_mode")
+  public String blendMode = BlendMode.VANILLA.getName();
+
+  /** How the effects of a potion are weighted, "amplifier", "duration" or "dominant". */
+  @Expose
+  @SerializedName("blend_weighting")
+  public String blendWeighting = BlendWeighting.AMPLIFIER.getName();
+
+  /** Weights of effects keyed by potion name, where 1 counts an effect as much as vanilla does. */
+  @Expose
+  @SerializedName("effect_weights")
+  public Map<String, Float> effectWeights = new LinkedHashMap<String, Float>();
+
+  /** Maximum number of cached colors for potions with custom effects. */
+  @Expose
+  @SerializedName("effect_cache_size")
+  public int effectCacheSize = 256;
+
+  /** How the hooks are injected into ItemPotion, "event" or "direct". Applied on restart. */
+  @Expose
+  @SerializedName("injection_mode")
+  public String injectionMode = InjectionMode.EVENT.getName();
+
+  /** Whether or not to collect metrics of the hooks and write them next to the config file. */
+  @Expose
+  @SerializedName("metrics_enabled")
+  public boolean metricsEnabled = false;
+
+  /** Seconds between two snapshots of the metrics. */
+  @Expose
+  @SerializedName("metrics_interval")
+  public int metricsInterval = 30;
+
+  /** Sources the tables of a detached instance were built from, or null if they are unbuilt. */
+  private TableSources detachedSources;
+
+  /** Color table without custom colors of a detached instance. */
+  private PotionColorTable detachedDefaultTable;
+
+  /** Generation of the color tables a detached instance was requested to build. */
+  private int detachedGeneration;
+
+  /**
+   * Generation of the color tables in effect, advanced whenever they are rebuilt or new blend
+   * settings are requested, so that builds finishing after newer changes can be told apart.
+   */
+  private int tableGeneration;
+
+  /** Builder of the color tables for new blend settings, created on initialization. */
+  private ColorTableBuilder tableBuilder;
+
+  /** Background writer of the configuration file, created on initialization. */
+  private ConfigWriter configWriter;
+
+  /** Resolved obfuscated names and liquid color setter, created once initialization completes. */
+  private PotionObfResolver obfResolver;
+
+  /** Writer of metrics snapshots, created once initialization completes. */
+  private MetricsReporter metricsReporter;
+
+  /** Watcher reloading the configuration file when it changes, created once init completes. */
+  private ConfigWatcher configWatcher;
+
+  /** Precomputer of the potion colors of open containers. */
+  private final ContainerColorPrecomputer containerPrecomputer = new ContainerColorPrecomputer();
+
+  /** Key switching to the next color profile. */
+  private KeyBinding profileKey;
 
   /** Construct new instance of the mod and update static reference to it. */
   public LiteModPotionColorizer() {
@@ -115,6 +457,38 @@ public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Co
     }
   }
 
+  /**
+   * Construct a detached instance that only holds settings, without touching the static reference.
+   * 
+   * @param detached Ignored, only distinguishes this constructor
+   */
+  private LiteModPotionColorizer(boolean detached) {}
+
+  /**
+   * Parse the settings of a configuration file into a detached instance. Settings missing from the
+   * file keep their default values, the same as when LiteLoader loads the file.
+   * 
+   * @param json The configuration file's text
+   * @return Instance holding the parsed settings
+   * @throws JsonParseException If the text is not a valid configuration
+   */
+  static LiteModPotionColorizer parseSettings(String json) throws JsonParseException {
+    Gson gson =
+        new GsonBuilder().excludeFieldsWithoutExposeAnnotation()
+            .registerTypeAdapter(LiteModPotionColorizer.class,
+                new InstanceCreator<LiteModPotionColorizer>() {
+                  @Override
+                  public LiteModPotionColorizer createInstance(Type type) {
+                    return new LiteModPotionColorizer(true);
+                  }
+                }).create();
+    LiteModPotionColorizer settings = gson.fromJson(json, LiteModPotionColorizer.class);
+    if (settings == null) {
+      throw new JsonParseException("The file is empty");
+    }
+    return settings;
+  }
+
   /** Get the class responsible for configuration panel functionality. */
   @Override
   public Class<? extends ConfigPanel> getConfigPanelClass() {
@@ -133,97 +507,577 @@ public class LiteModPotionColorizer implements LiteMod, InitCompleteListener, Co
     return MOD_VERSION;
   }
 
-  /** On initialization, prep default potion colors for later. */
+  /**
+   * On initialization, switch the hooks on or off, start the config writer and table builder and
+   * register the profile key.
+   */
   @Override
   public void init(File configPath) {
-    if (defaultColors != null) {
-      return;
+    updateHooks();
+    if (configWriter == null) {
+      configWriter = new ConfigWriter(new File(LiteLoader.getCommonConfigFolder(), CONFIG_FILE));
+    }
+    if (tableBuilder == null) {
+      tableBuilder = new ColorTableBuilder();
+    }
+    if (profileKey == null) {
+      profileKey =
+          new KeyBinding("key.potioncolorizer.profile", Keyboard.KEY_NONE,
+              "key.categories.potioncolorizer");
+      LiteLoader.getInput().registerKeyBinding(profileKey);
     }
-    defaultColors = new HashMap<String, Integer>();
   }
 
-  /** Once initialization finishes, save default colors and modify current colors via reflection. */
+  /**
+   * Once initialization finishes, save default colors, translate the profiles' custom colors to
+   * potion ids, resolve the obfuscated names, precompute the color tables and start watching the
+   * config file.
+   */
   @Override
   public void onInitCompleted(Minecraft minecraft, LiteLoader loader) {
-    for (Potion potion : Potion.potionTypes) {
+    registryArray = Potion.potionTypes;
+    registryCount = countPotions(registryArray);
+    potions = registryArray.clone();
+    if (defaultColors == null) {
+      defaultColors = PotionColorStore.ofLiquidColors(potions);
+    }
+    loadProfiles(potions);
+    LiteLoaderLogger.info("Saved %d default potion liquid colors.", defaultColors.count());
+    obfResolver = PotionObfResolver.resolve();
+    publishTableSources(DamageEffectIndex.build());
+    rebuildColorTables();
+    LiteLoaderLogger.info("Precomputed %d potion liquid colors from %d effect signatures.",
+        PotionColorTable.SIZE, tableSources.damageEffects.getSignatureCount());
+    metricsReporter = new MetricsReporter(LiteLoader.getCommonConfigFolder());
+    configWatcher =
+        new ConfigWatcher(new File(LiteLoader.getCommonConfigFolder(), CONFIG_FILE), configWriter);
+    configWatcher.start();
+  }
+
+  /**
+   * On each tick, apply settings reloaded from the config file, swap in the tables built for new
+   * blend settings, pick up potions registered since the last snapshot, switch profiles if the profile key was pressed, precompute the colors of
+   * potions in an open container before it renders and write a snapshot of the metrics if one is
+   * due.
+   */
+  @Override
+  public void onTick(Minecraft minecraft, float partialTicks, boolean inGame, boolean clock) {
+    if (configWatcher != null) {
+      LiteModPotionColorizer settings = configWatcher.takeReloaded();
+      if (settings != null) {
+        applySettings(settings);
+      }
+    }
+    if (tableBuilder != null) {
+      LiteModPotionColorizer built = tableBuilder.takeBuilt();
+      if (built != null) {
+        swapBlendTables(built);
+      }
+    }
+    if (potions != null
+        && (Potion.potionTypes != registryArray || countPotions(registryArray) != registryCount)) {
+      addLatePotions();
+    }
+    if (inGame && potions != null && profileKey != null && profileKey.isPressed()) {
+      cycleProfile();
+    }
+    if (potions != null && minecraft != null) {
+      containerPrecomputer.poll(minecraft.currentScreen);
+    }
+    if (metricsReporter != null) {
+      metricsReporter.flushIfDue(metricsInterval);
+    }
+  }
+
+  /**
+   * Take over the settings of a reloaded configuration file and publish the color tables built for
+   * them. The tables are only built here if potions were registered after they were built.
+   * 
+   * @param settings Detached instance holding the reloaded settings
+   */
+  private void applySettings(LiteModPotionColorizer settings) {
+    deglintPotions = settings.deglintPotions;
+    recolorPotions = settings.recolorPotions;
+    customColors = settings.customColors;
+    blendMode = settings.blendMode;
+    blendWeighting = settings.blendWeighting;
+    effectWeights = settings.effectWeights;
+    customColorNames = settings.customColorNames;
+    profileColorNames = settings.profileColorNames;
+    activeProfile = settings.activeProfile;
+    effectCacheSize = settings.effectCacheSize;
+    injectionMode = settings.injectionMode;
+    metricsEnabled = settings.metricsEnabled;
+    metricsInterval = settings.metricsInterval;
+    if (settings.detachedSources != null && settings.detachedSources == tableSources) {
+      tableGeneration++;
+      profileColors.clear();
+      profileColors.putAll(settings.profileColors);
+      profileTables.clear();
+      profileTables.putAll(settings.profileTables);
+      customPotionColors = settings.customPotionColors;
+      customTable = profileTables.get(activeProfile);
+      defaultTable = settings.detachedDefaultTable;
+      updateHooks();
+    } else {
+      loadProfiles(potions);
+      rebuildColorTables();
+    }
+    LiteLoaderLogger.info("Reloaded settings from %s.", CONFIG_FILE);
+  }
+
+  /**
+   * Translate the custom colors of every profile to potion ids. Custom colors of configs written
+   * before profiles existed become the default profile, and a missing active profile falls back to
+   * the first one.
+   * 
+   * @param snapshot The potions to translate the colors' names with
+   */
+  private void loadProfiles(Potion[] snapshot) {
+    if (profileColorNames == null) {
+      profileColorNames = new LinkedHashMap<String, Map<String, Integer>>();
+    }
+    if (customColorNames != null) {
+      if (!profileColorNames.containsKey(DEFAULT_PROFILE)) {
+        profileColorNames.put(DEFAULT_PROFILE, customColorNames);
+      }
+      customColorNames = null;
+    }
+    if (profileColorNames.isEmpty()) {
+      profileColorNames.put(DEFAULT_PROFILE, new HashMap<String, Integer>());
+    }
+    profileColors.clear();
+    for (Map.Entry<String, Map<String, Integer>> profile : profileColorNames.entrySet()) {
+      profileColors.put(profile.getKey(), PotionColorStore.fromNames(profile.getValue(), snapshot));
+    }
+    if (!profileColors.containsKey(activeProfile)) {
+      activeProfile = profileColors.keySet().iterator().next();
+    }
+    customPotionColors = profileColors.get(activeProfile);
+  }
+
+  /** Get the names of the color profiles, in the order they are cycled through. */
+  public List<String> getProfileNames() {
+    return new ArrayList<String>(profileColors.keySet());
+  }
+
+  /** Get the name of the color profile in use. */
+  public String getActiveProfile() {
+    return activeProfile;
+  }
+
+  /**
+   * Switch to another color profile. Its table is prebuilt, so this only swaps references.
+   * 
+   * @param name Name of the profile
+   * @return False if there is no profile of that name
+   */
+  public boolean selectProfile(String name) {
+    PotionColorStore colors = profileColors.get(name);
+    if (colors == null) {
+      return false;
+    }
+    activeProfile = name;
+    customPotionColors = colors;
+    customTable = profileTables.get(name);
+    updateHooks();
+    return true;
+  }
+
+  /** Switch to the next color profile and have the choice saved. */
+  public void cycleProfile() {
+    List<String> names = getProfileNames();
+    String name = names.get((names.indexOf(activeProfile) + 1) % names.size());
+    selectProfile(name);
+    configWriter.save(this);
+    LiteLoaderLogger.info("Switched to potion color profile %s.", name);
+  }
+
+  /**
+   * Create a new color profile holding a copy of the active profile's colors, and build its table.
+   * 
+   * @return Name of the new profile
+   */
+  public String createProfile() {
+    int number = profileColors.size() + 1;
+    while (profileColors.containsKey("profile " + number)) {
+      number++;
+    }
+    String name = "profile " + number;
+    PotionColorStore colors = customPotionColors.copy();
+    profileColors.put(name, colors);
+    profileColorNames.put(name, colors.toNames(potions, null));
+    TableSources sources = tableSources;
+    profileTables.put(name, PotionColorTable.build(sources.damageEffects,
+        buildBlendPalette(sources, colors), effectCacheSize));
+    return name;
+  }
+
+  /**
+   * Count the potions in a registry array, as a cheap fingerprint of its contents.
+   * 
+   * @param potionTypes The registry array
+   * @return Number of non-null entries
+   */
+  private static int countPotions(Potion[] potionTypes) {
+    int count = 0;
+    for (Potion potion : potionTypes) {
       if (potion != null) {
-        defaultColors.put(potion.getName(), Integer.valueOf(potion.getLiquidColor()));
+        count++;
       }
     }
-    LiteLoaderLogger.info("Saved %d default potion liquid colors.", defaultColors.size());
+    return count;
+  }
+
+  /**
+   * Take a new snapshot of the registered potions, and add the default colors, custom colors and
+   * table colors of potions registered since the last one. Only the effect signatures that use the
+   * new potions are blended again.
+   */
+  private void addLatePotions() {
+    registryArray = Potion.potionTypes;
+    registryCount = countPotions(registryArray);
+    Potion[] current = registryArray.clone();
+    BitSet added = new BitSet();
+    for (Potion potion : current) {
+      if (potion != null && (potion.id >= potions.length || potions[potion.id] != potion)) {
+        added.set(potion.id);
+        defaultColors.put(potion.id, potion.getLiquidColor());
+        for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+          Map<String, Integer> colorNames = profileColorNames.get(profile.getKey());
+          Integer color = colorNames != null ? colorNames.get(potion.getName()) : null;
+          if (color != null) {
+            profile.getValue().put(potion.id, color.intValue());
+          }
+        }
+      }
+    }
+    potions = current;
+    TableSources sources = publishTableSources(tableSources.damageEffects);
+    if (added.isEmpty()) {
+      return;
+    }
+    long start = HookMetrics.REBUILD_TABLES.start();
     try {
-      setPotionColors();
-    } catch (Exception e) {
-      LiteLoaderLogger.severe("Failed to set potion colors: " + e.getClass().getName());
+      for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+        profileTables.put(profile.getKey(), profileTables.get(profile.getKey()).withEffectColors(
+            sources.damageEffects, added, buildBlendPalette(sources, profile.getValue()),
+            effectCacheSize));
+      }
+      customTable = profileTables.get(activeProfile);
+      defaultTable =
+          defaultTable.withEffectColors(sources.damageEffects, added,
+              buildBlendPalette(sources, null), effectCacheSize);
+    } finally {
+      HookMetrics.REBUILD_TABLES.stop(start);
     }
+    updateHooks();
+    LiteLoaderLogger.info("Added colors of %d late registered potions.", added.cardinality());
   }
 
-  /** On each tick, nothing needs to be done. */
-  @Override
-  public void onTick(Minecraft minecraft, float partialTicks, boolean inGame, boolean clock) {}
+  /**
+   * Publish copies of the current potion snapshot and default colors for building color tables.
+   * 
+   * @param damageEffects The effects of every potion damage value
+   * @return The published sources
+   */
+  private static TableSources publishTableSources(DamageEffectIndex damageEffects) {
+    TableSources sources = new TableSources(potions, defaultColors.copy(), damageEffects);
+    tableSources = sources;
+    return sources;
+  }
 
   /**
-   * Using reflection, modify potion colors to custom values. If a custom color is not defined,
-   * reset its current color to the default if necessary.
+   * Build a palette of effect colors, using the custom color of a potion if one is defined and its
+   * default color otherwise.
    * 
-   * @throws IllegalAccessException If a potion does not have an accessible liquid color field.
-   * @throws NoSuchFieldException If the Potion class does not have the liquid color field.
+   * @param sources The potions and default colors to build it from
+   * @param custom Custom colors to use, or null for the default colors only
+   * @return Effect colors indexed by potion id
    */
-  private void setPotionColors() throws NoSuchFieldException, IllegalAccessException {
-    for (int i = 0; i < PotionObf.potion_liquidColor.names.length; i++) {
-      try {
-        setPotionColors(PotionObf.potion_liquidColor.names[i]);
-        return;
-      } catch (NoSuchFieldException e) {
-        if (i == PotionObf.potion_liquidColor.names.length - 1) {
-          throw e;
-        }
-      } catch (IllegalAccessException e) {
-        if (i == PotionObf.potion_liquidColor.names.length - 1) {
-          throw e;
+  private static int[] buildPalette(TableSources sources, PotionColorStore custom) {
+    int[] colors = new int[sources.potions.length];
+    for (Potion potion : sources.potions) {
+      if (potion != null) {
+        colors[potion.id] = getEffectColor(potion, sources.defaultColors, custom);
+      }
+    }
+    return colors;
+  }
+
+  /**
+   * Get the color a potion effect should have: its custom color if one is defined, and its default
+   * color otherwise. Potions without a default color keep their current liquid color.
+   * 
+   * @param potion The potion effect
+   * @param defaults Default colors of the potions
+   * @param custom Custom colors to use, or null for the default colors only
+   * @return The effect's color
+   */
+  private static int getEffectColor(Potion potion, PotionColorStore defaults,
+      PotionColorStore custom) {
+    int color = defaults.contains(potion.id) ? defaults.get(potion.id, 0) : potion.getLiquidColor();
+    return custom != null ? custom.get(potion.id, color) : color;
+  }
+
+  /**
+   * Write the effect colors of the table in effect into the potions' liquid colors through the
+   * resolved setter, so that vanilla code coloring splash potion and entity particles from them
+   * uses custom colors as well. Only colors that differ are written.
+   */
+  private void setPotionColors() {
+    if (obfResolver == null || !obfResolver.canSetLiquidColor()) {
+      return;
+    }
+    PotionColorStore custom = customColors ? customPotionColors : null;
+    for (Potion potion : potions) {
+      if (potion != null) {
+        int color = getEffectColor(potion, defaultColors, custom);
+        if (potion.getLiquidColor() != color) {
+          obfResolver.setLiquidColor(potion, color);
         }
       }
     }
   }
 
   /**
-   * Using reflection, modify potion colors to custom values via the given field name. If a custom
-   * color is not defined, reset its current color to the default if necessary.
+   * Build a blend palette of effect colors with the configured blend mode, weighting and effect
+   * weights.
+   * 
+   * @param sources The potions and default colors to build it from
+   * @param custom Custom colors to use, or null for the default colors only
+   * @return The palette
+   */
+  private BlendPalette buildBlendPalette(TableSources sources, PotionColorStore custom) {
+    return BlendPalette.of(buildPalette(sources, custom), BlendMode.fromName(blendMode),
+        BlendWeighting.fromName(blendWeighting), buildWeights(sources.potions));
+  }
+
+  /**
+   * Translate the configured effect weights to fixed-point weights indexed by potion id.
    * 
-   * @param fieldName The name of the liquid color field.
-   * @throws IllegalAccessException If a potion does not have an accessible field of that name.
-   * @throws NoSuchFieldException If the Potion class does not have a field of that name.
+   * @param snapshot The potions to translate the weights' names with
+   * @return The weights, or null if every effect weighs the same as in vanilla
    */
-  private void setPotionColors(String fieldName) throws NoSuchFieldException,
-      IllegalAccessException {
-    Field f = Potion.class.getDeclaredField(fieldName);
-    boolean accessibility = f.isAccessible();
-    f.setAccessible(true);
-    for (Potion potion : Potion.potionTypes) {
-      if (potion == null) {
-        continue;
-      } else if (customPotionColors.containsKey(potion.getName())) {
-        f.setInt(potion, customPotionColors.get(potion.getName()));
-      } else if (potion.getLiquidColor() != defaultColors.get(potion.getName())) {
-        f.setInt(potion, defaultColors.get(potion.getName()));
+  private int[] buildWeights(Potion[] snapshot) {
+    if (effectWeights == null || effectWeights.isEmpty()) {
+      return null;
+    }
+    int[] weights = new int[snapshot.length];
+    boolean weighted = false;
+    for (Potion potion : snapshot) {
+      if (potion != null) {
+        Float weight = effectWeights.get(potion.getName());
+        weights[potion.id] =
+            weight != null ? BlendPalette.toWeight(weight.floatValue()) : BlendPalette.WEIGHT_ONE;
+        weighted |= weights[potion.id] != BlendPalette.WEIGHT_ONE;
       }
     }
-    if (f.isAccessible() != accessibility) {
-      f.setAccessible(accessibility);
+    return weighted ? weights : null;
+  }
+
+  /**
+   * Switch to another blend mode. Every color table is blended again in the background and swapped
+   * in once it is built.
+   * 
+   * @param mode The blend mode
+   */
+  public void setBlendMode(BlendMode mode) {
+    blendMode = mode.getName();
+    requestBlendTables();
+  }
+
+  /**
+   * Switch to another weighting of effects. Every color table is blended again in the background
+   * and swapped in once it is built.
+   * 
+   * @param weighting The weighting
+   */
+  public void setBlendWeighting(BlendWeighting weighting) {
+    blendWeighting = weighting.getName();
+    requestBlendTables();
+  }
+
+  /**
+   * Have the color table of every profile and the one without custom colors built for the current
+   * blend settings in the background, from copies of the settings and profile colors. Without a
+   * table builder, the tables are rebuilt right away.
+   */
+  private void requestBlendTables() {
+    if (tableSources == null) {
+      return;
+    }
+    if (tableBuilder == null) {
+      rebuildColorTables();
+      return;
+    }
+    LiteModPotionColorizer settings = new LiteModPotionColorizer(true);
+    settings.blendMode = blendMode;
+    settings.blendWeighting = blendWeighting;
+    settings.effectWeights =
+        effectWeights != null ? new LinkedHashMap<String, Float>(effectWeights) : null;
+    settings.effectCacheSize = effectCacheSize;
+    for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+      settings.profileColors.put(profile.getKey(), profile.getValue().copy());
     }
+    settings.detachedGeneration = ++tableGeneration;
+    tableBuilder.submit(settings);
+  }
+
+  /**
+   * Swap in the color tables built in the background for new blend settings. Builds overtaken by a
+   * rebuild or newer blend settings are dropped, and builds from sources published before potions
+   * were registered are requested again. Profiles created after the build was requested keep their
+   * own tables, which were built with the new settings already.
+   * 
+   * @param built Detached instance holding the built tables
+   */
+  private void swapBlendTables(LiteModPotionColorizer built) {
+    if (built.detachedGeneration != tableGeneration) {
+      return;
+    }
+    if (built.detachedSources != tableSources) {
+      requestBlendTables();
+      return;
+    }
+    profileTables.putAll(built.profileTables);
+    customTable = profileTables.get(activeProfile);
+    defaultTable = built.detachedDefaultTable;
+    updateHooks();
+  }
+
+  /**
+   * Rebuild the color table of every profile and the one without custom colors, then publish the
+   * table in effect. Tables built before take their effect caches along to the new ones, and
+   * invalidate the colors cached in them by starting a new generation.
+   */
+  private void rebuildColorTables() {
+    tableGeneration++;
+    TableSources sources = tableSources;
+    DamageEffectIndex index = sources.damageEffects;
+    long start = HookMetrics.REBUILD_TABLES.start();
+    try {
+      Map<String, PotionColorTable> tables = new LinkedHashMap<String, PotionColorTable>();
+      for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+        BlendPalette palette = buildBlendPalette(sources, profile.getValue());
+        PotionColorTable previous = profileTables.get(profile.getKey());
+        tables.put(profile.getKey(),
+            previous != null ? previous.rebuild(index, palette, effectCacheSize)
+                : PotionColorTable.build(index, palette, effectCacheSize));
+      }
+      profileTables.clear();
+      profileTables.putAll(tables);
+      customTable = profileTables.get(activeProfile);
+      BlendPalette palette = buildBlendPalette(sources, null);
+      defaultTable =
+          defaultTable != null ? defaultTable.rebuild(index, palette, effectCacheSize)
+              : PotionColorTable.build(index, palette, effectCacheSize);
+    } finally {
+      HookMetrics.REBUILD_TABLES.stop(start);
+    }
+    updateHooks();
+  }
+
+  /**
+   * Translate the profiles of a detached instance holding reloaded settings and build its color
+   * tables, so that applying the settings on the render thread only swaps references. Called on the
+   * config watcher's thread, so the tables are built from the sources the render thread published
+   * last rather than from its own potion snapshot and default colors. If the render thread
+   * publishes new sources in the meantime, it builds the tables again when applying the settings.
+   */
+  void buildDetachedTables() {
+    TableSources sources = tableSources;
+    if (sources != null) {
+      loadProfiles(sources.potions);
+      buildDetachedTables(sources);
+    }
+  }
+
+  /**
+   * Build the color tables of a detached instance holding copies of new blend settings and the
+   * profiles' colors. Called on the table builder's thread.
+   */
+  void buildDetachedBlendTables() {
+    TableSources sources = tableSources;
+    if (sources != null) {
+      buildDetachedTables(sources);
+    }
+  }
+
+  /**
+   * Build the color table of every profile of a detached instance and the one without custom
+   * colors, and record the sources they were built from.
+   * 
+   * @param sources The potions, default colors and damage effects to build them from
+   */
+  private void buildDetachedTables(TableSources sources) {
+    long start = HookMetrics.REBUILD_TABLES.start();
+    try {
+      for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+        profileTables.put(profile.getKey(), PotionColorTable.build(sources.damageEffects,
+            buildBlendPalette(sources, profile.getValue()), effectCacheSize));
+      }
+      detachedDefaultTable =
+          PotionColorTable.build(sources.damageEffects, buildBlendPalette(sources, null),
+              effectCacheSize);
+      detachedSources = sources;
+    } finally {
+      HookMetrics.REBUILD_TABLES.stop(start);
+    }
+  }
+
+  /**
+   * Point the hooks at the mod's implementations for the features that are enabled, and at the
+   * vanilla code for those that are not, publish the color table with or without custom colors to
+   * the recolor hook, write its effect colors into the potions, and switch collection of metrics on
+   * or off. While metrics are off, the hooks point at untimed
+   * implementations, and disabled hooks at a bare constant. Switching tables only swaps a reference
+   * and writes the few liquid colors that change.
+   */
+  public void updateHooks() {
+    recolorCustomEffects = recolorPotions;
+    colorTable = customColors ? customTable : defaultTable;
+    HookMetrics.setEnabled(metricsEnabled);
+    deglintHook.setTimed(metricsEnabled);
+    deglintHook.setEnabled(deglintPotions);
+    recolorHook.setTimed(metricsEnabled);
+    recolorHook.setEnabled(recolorPotions || customColors);
+    setPotionColors();
   }
 
   /** On upgrading from a previous version, nothing needs to be done. */
   @Override
   public void upgradeSettings(String version, File configPath, File oldConfigPath) {}
 
-  /** Write current configuration values to disk. */
+  /** Apply the current configuration values and have them written to disk in the background. */
   public void writeConfig() {
-    try {
-      setPotionColors();
-    } catch (Exception e) {
-      LiteLoaderLogger.severe("Failed to set potion colors: " + e.getClass().getName());
+    for (Map.Entry<String, PotionColorStore> profile : profileColors.entrySet()) {
+      profileColorNames.put(profile.getKey(),
+          profile.getValue().toNames(potions, profileColorNames.get(profile.getKey())));
     }
-    LiteLoader.getInstance().writeConfig(this);
+    rebuildColorTables();
+    configWriter.save(this);
   }
+
+  /** Everything color tables are built from besides the settings, never modified once published. */
+  private static final class TableSources {
+
+    /** Snapshot of the registered potions, indexed by id. */
+    private final Potion[] potions;
+
+    /** Default liquid colors of the potions, indexed by id. */
+    private final PotionColorStore defaultColors;
+
+    /** Effects of every potion damage value. */
+    private final DamageEffectIndex damageEffects;
+
+    private TableSources(Potion[] potions, PotionColorStore defaultColors,
+        DamageEffectIndex damageEffects) {
+      this.potions = potions;
+      this.defaultColors = defaultColors;
+      this.damageEffects = damageEffects;
+    }
+
+  }
+
 }
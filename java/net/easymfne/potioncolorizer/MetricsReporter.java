@@ -0,0 +1,138 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Periodically appends a snapshot of every {@link HookMetrics} to a CSV file, one row per hook.
+ * Values are totals since metrics were first enabled, so the cost of an interval is the difference
+ * between two snapshots. Snapshots are taken on the calling thread and appended to the file on a
+ * background thread, so that reporting never blocks the render thread on disk I/O.
+ */
+public class MetricsReporter {
+
+  /** Name of the metrics file, kept next to the configuration file. */
+  public static final String FILE_NAME = "potioncolorizer.metrics.csv";
+
+  /** Column headers of the metrics file. */
+  private static final String HEADER =
+      "time,hook,calls,skipped,hits,misses,samples,mean_ns,p50_ns,p99_ns,max_ns";
+
+  /** The metrics file. */
+  private final File file;
+
+  /** Thread the snapshots are written on. */
+  private final ExecutorService executor;
+
+  /** Time of the next snapshot, from System.currentTimeMillis, or 0 if none is scheduled. */
+  private long nextFlush;
+
+  /**
+   * Create a new reporter.
+   * 
+   * @param folder Folder to keep the metrics file in
+   */
+  public MetricsReporter(File folder) {
+    this.file = new File(folder, FILE_NAME);
+    this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, LiteModPotionColorizer.MOD_NAME + " metrics writer");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Write a snapshot if metrics are enabled and the interval since the last one has passed.
+   * 
+   * @param intervalSeconds Seconds between snapshots
+   */
+  public void flushIfDue(int intervalSeconds) {
+    if (!HookMetrics.isEnabled()) {
+      nextFlush = 0;
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (nextFlush == 0) {
+      nextFlush = now + Math.max(1, intervalSeconds) * 1000L;
+    } else if (now >= nextFlush) {
+      nextFlush = now + Math.max(1, intervalSeconds) * 1000L;
+      flush(now);
+    }
+  }
+
+  /**
+   * Take a snapshot of every hook's metrics and queue it to be appended to the metrics file.
+   * 
+   * @param time Time of the snapshot, from System.currentTimeMillis
+   */
+  public void flush(long time) {
+    StringBuilder rows = new StringBuilder();
+    for (HookMetrics metrics : HookMetrics.getAll()) {
+      LatencyHistogram latency = metrics.getLatency();
+      rows.append(time).append(',').append(metrics.getName()).append(',')
+          .append(metrics.getCalls()).append(',').append(metrics.getSkipped()).append(',')
+          .append(metrics.getHits()).append(',').append(metrics.getMisses()).append(',')
+          .append(latency.getSamples()).append(',').append(latency.getMeanNanos()).append(',')
+          .append(latency.getPercentileNanos(50)).append(',')
+          .append(latency.getPercentileNanos(99)).append(',').append(latency.getMaxNanos())
+          .append('\n');
+    }
+    final String snapshot = rows.toString();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        append(snapshot);
+      }
+    });
+  }
+
+  /**
+   * Append rows to the metrics file, starting it with the column headers if it does not exist yet.
+   * 
+   * @param rows The rows to append
+   */
+  private void append(String rows) {
+    boolean header = !file.isFile();
+    Writer writer = null;
+    try {
+      writer = new FileWriter(file, true);
+      if (header) {
+        writer.write(HEADER + "\n");
+      }
+      writer.write(rows);
+    } catch (IOException e) {
+      LiteLoaderLogger.warning("Failed to write metrics: " + e.getClass().getName());
+    } finally {
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException e) {}
+      }
+    }
+  }
+
+}
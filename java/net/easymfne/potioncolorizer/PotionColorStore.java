@@ -0,0 +1,176 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.potion.Potion;
+
+/**
+ * Colors of potion effects indexed by potion id, kept as primitives with a set of the ids that have
+ * a color. Potions are only referred to by name in the configuration file, so names are translated
+ * to ids when the configuration is loaded and back when it is saved, against a snapshot of the
+ * registered potions. A store must only be used from one thread.
+ */
+public class PotionColorStore {
+
+  /** Color of each potion id, only meaningful where {@link #present} is set. */
+  private int[] colors;
+
+  /** Ids that have a color. */
+  private final BitSet present = new BitSet();
+
+  /**
+   * Create a new, empty store.
+   * 
+   * @param size Number of potion ids to make room for
+   */
+  public PotionColorStore(int size) {
+    colors = new int[size];
+  }
+
+  /**
+   * Create a store of the current liquid colors of the registered potions.
+   * 
+   * @param potions Snapshot of the registered potions, indexed by id
+   * @return The new store
+   */
+  public static PotionColorStore ofLiquidColors(Potion[] potions) {
+    PotionColorStore store = new PotionColorStore(potions.length);
+    for (Potion potion : potions) {
+      if (potion != null) {
+        store.put(potion.id, potion.getLiquidColor());
+      }
+    }
+    return store;
+  }
+
+  /**
+   * Create a store from colors keyed by potion name. Names of potions that are not registered are
+   * left out.
+   * 
+   * @param colorNames Colors keyed by potion name
+   * @param potions Snapshot of the registered potions, indexed by id
+   * @return The new store
+   */
+  public static PotionColorStore fromNames(Map<String, Integer> colorNames, Potion[] potions) {
+    PotionColorStore store = new PotionColorStore(potions.length);
+    if (colorNames == null) {
+      return store;
+    }
+    for (Potion potion : potions) {
+      if (potion != null) {
+        Integer color = colorNames.get(potion.getName());
+        if (color != null) {
+          store.put(potion.id, color.intValue());
+        }
+      }
+    }
+    return store;
+  }
+
+  /**
+   * Get the colors keyed by potion name. Entries of the previous names whose potions are not
+   * registered are carried over, so colors for potions of other mods survive playing without them.
+   * 
+   * @param potions Snapshot of the registered potions, indexed by id
+   * @param previous Colors keyed by potion name as last loaded or saved, may be null
+   * @return Colors keyed by potion name
+   */
+  public Map<String, Integer> toNames(Potion[] potions, Map<String, Integer> previous) {
+    Map<String, Integer> colorNames = new HashMap<String, Integer>();
+    if (previous != null) {
+      colorNames.putAll(previous);
+    }
+    for (Potion potion : potions) {
+      if (potion == null) {
+        continue;
+      } else if (contains(potion.id)) {
+        colorNames.put(potion.getName(), Integer.valueOf(colors[potion.id]));
+      } else {
+        colorNames.remove(potion.getName());
+      }
+    }
+    return colorNames;
+  }
+
+  /**
+   * Check whether a potion id has a color.
+   * 
+   * @param id The potion id
+   * @return True if a color is stored for it
+   */
+  public boolean contains(int id) {
+    return id >= 0 && present.get(id);
+  }
+
+  /**
+   * Get the color of a potion id.
+   * 
+   * @param id The potion id
+   * @param fallback Value to return if no color is stored for it
+   * @return The stored color, or the fallback
+   */
+  public int get(int id, int fallback) {
+    return contains(id) ? colors[id] : fallback;
+  }
+
+  /**
+   * Store the color of a potion id, making room for it if necessary.
+   * 
+   * @param id The potion id
+   * @param color The color
+   */
+  public void put(int id, int color) {
+    if (id >= colors.length) {
+      colors = Arrays.copyOf(colors, Math.max(id + 1, colors.length * 2));
+    }
+    colors[id] = color;
+    present.set(id);
+  }
+
+  /**
+   * Remove the color of a potion id.
+   * 
+   * @param id The potion id
+   */
+  public void remove(int id) {
+    if (id >= 0) {
+      present.clear(id);
+    }
+  }
+
+  /** Create an independent copy of this store. */
+  public PotionColorStore copy() {
+    PotionColorStore store = new PotionColorStore(colors.length);
+    System.arraycopy(colors, 0, store.colors, 0, colors.length);
+    store.present.or(present);
+    return store;
+  }
+
+  /** Remove every color. */
+  public void clear() {
+    present.clear();
+  }
+
+  /** Get the number of potion ids that have a color. */
+  public int count() {
+    return present.cardinality();
+  }
+
+}
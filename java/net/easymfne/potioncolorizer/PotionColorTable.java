@@ -0,0 +1,213 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.minecraft.potion.PotionEffect;
+
+/**
+ * A set of effect colors, the way they are blended and everything precomputed from them: liquid
+ * colors for every potion damage value, so that potions without custom effects can be colored with
+ * a single array lookup, and a cache of liquid colors for potions with custom effects. The colors
+ * of a table never change; changing colors means building a new table and swapping it in. Only the
+ * cache is mutable, and it must only be used from the render thread. A table built from another
+ * one takes over its cache and starts a new generation of it, so that stale colors are dropped
+ * without clearing or allocating anything.
+ */
+public class PotionColorTable {
+
+  /** Number of potion damage values covered by the table (splash bit included). */
+  public static final int SIZE = 0x8000;
+
+  /** Effect colors indexed by potion id, with their components and weights. */
+  private final BlendPalette palette;
+
+  /** Liquid colors indexed by potion damage value. */
+  private final int[] colors;
+
+  /** Cached liquid colors for potions with custom effects, keyed by their effect content. */
+  private final EffectColorCache effectCache;
+
+  /**
+   * Create a new table around the given colors.
+   * 
+   * @param palette Effect colors, their components and weights
+   * @param colors Liquid colors indexed by damage value
+   * @param effectCache Cache of liquid colors for potions with custom effects
+   */
+  private PotionColorTable(BlendPalette palette, int[] colors, EffectColorCache effectCache) {
+    this.palette = palette;
+    this.colors = colors;
+    this.effectCache = effectCache;
+  }
+
+  /**
+   * Build a new table by blending every effect signature of the index with the given palette.
+   * 
+   * @param index The effects of every damage value
+   * @param palette Effect colors, their components and weights
+   * @param effectCacheSize Maximum number of cached colors for potions with custom effects
+   * @return The newly built table
+   */
+  public static PotionColorTable build(DamageEffectIndex index, BlendPalette palette,
+      int effectCacheSize) {
+    return new PotionColorTable(palette, blendAll(index, palette), new EffectColorCache(
+        effectCacheSize));
+  }
+
+  /**
+   * Build a new table by blending every effect signature of the index with the given palette,
+   * taking over this table's effect cache if it has the right size.
+   * 
+   * @param index The effects of every damage value
+   * @param newPalette Effect colors, their components and weights
+   * @param effectCacheSize Maximum number of cached colors for potions with custom effects
+   * @return The newly built table
+   */
+  public PotionColorTable rebuild(DamageEffectIndex index, BlendPalette newPalette,
+      int effectCacheSize) {
+    return new PotionColorTable(newPalette, blendAll(index, newPalette),
+        nextCache(effectCacheSize));
+  }
+
+  /**
+   * Blend every effect signature of the index.
+   * 
+   * @param index The effects of every damage value
+   * @param palette Effect colors, their components and weights
+   * @return Liquid colors indexed by damage value
+   */
+  private static int[] blendAll(DamageEffectIndex index, BlendPalette palette) {
+    int[] signatureColors = new int[index.getSignatureCount()];
+    for (int signature = 0; signature < signatureColors.length; signature++) {
+      signatureColors[signature] = index.blend(signature, palette);
+    }
+    int[] colors = new int[SIZE];
+    for (int damage = 0; damage < SIZE; damage++) {
+      colors[damage] = signatureColors[index.getSignature(damage)];
+    }
+    return colors;
+  }
+
+  /**
+   * Build a copy of this table with the colors of some potions changed, blending again only the
+   * effect signatures that have effects of those potions. The new palette must blend the way this
+   * table's does. Cached colors may have been blended without those potions, so the copy starts a
+   * new generation of the effect cache.
+   * 
+   * @param index The effects of every damage value
+   * @param potionIds Ids of the potions whose colors change
+   * @param newPalette Effect colors, their components and weights, including the changed ones
+   * @param effectCacheSize Maximum number of cached colors for potions with custom effects
+   * @return The newly built table
+   */
+  public PotionColorTable withEffectColors(DamageEffectIndex index, BitSet potionIds,
+      BlendPalette newPalette, int effectCacheSize) {
+    int[] signatureColors = new int[index.getSignatureCount()];
+    boolean[] changed = new boolean[signatureColors.length];
+    boolean anyChanged = false;
+    for (int signature = 0; signature < signatureColors.length; signature++) {
+      if (index.usesAny(signature, potionIds)) {
+        signatureColors[signature] = index.blend(signature, newPalette);
+        changed[signature] = true;
+        anyChanged = true;
+      }
+    }
+    int[] newColors = colors;
+    if (anyChanged) {
+      newColors = colors.clone();
+      for (int damage = 0; damage < SIZE; damage++) {
+        int signature = index.getSignature(damage);
+        if (changed[signature]) {
+          newColors[damage] = signatureColors[signature];
+        }
+      }
+    }
+    return new PotionColorTable(newPalette, newColors, nextCache(effectCacheSize));
+  }
+
+  /**
+   * Get an effect cache for a table built from this one: this table's cache with a new generation
+   * started, or a new cache if the size changed.
+   * 
+   * @param effectCacheSize Maximum number of cached colors for potions with custom effects
+   * @return The effect cache
+   */
+  private EffectColorCache nextCache(int effectCacheSize) {
+    if (effectCache.getMaximumSize() != EffectColorCache.capacityFor(effectCacheSize)) {
+      return new EffectColorCache(effectCacheSize);
+    }
+    effectCache.invalidate();
+    return effectCache;
+  }
+
+  /** Get the mode the table's colors are blended in. */
+  public BlendMode getBlendMode() {
+    return palette.getMode();
+  }
+
+  /** Check whether the table's colors depend on the durations of the effects. */
+  public boolean usesDurations() {
+    return palette.usesDurations();
+  }
+
+  /**
+   * Check whether the table holds a color for the given damage value.
+   * 
+   * @param damage The potion damage value
+   * @return True if the damage value is within the table
+   */
+  public boolean contains(int damage) {
+    return damage >= 0 && damage < SIZE;
+  }
+
+  /**
+   * Get the precomputed liquid color of a potion damage value.
+   * 
+   * @param damage The potion damage value, which must be within the table
+   * @return The liquid color
+   */
+  public int getColor(int damage) {
+    return colors[damage];
+  }
+
+  /** Get the cache of liquid colors for potions with custom effects. */
+  public EffectColorCache getEffectCache() {
+    return effectCache;
+  }
+
+  /**
+   * Blend the liquid color of the effects last read by a reader.
+   * 
+   * @param reader The reader
+   * @return The blended liquid color
+   */
+  public int blend(CustomEffectReader reader) {
+    return reader.blend(palette);
+  }
+
+  /**
+   * Blend the liquid color of a list of effects.
+   * 
+   * @param effects The effects, may be null
+   * @return The blended liquid color
+   */
+  public int blend(List<PotionEffect> effects) {
+    return EffectColorBlender.blend(palette, effects);
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.Arrays;
+
+import net.minecraft.launchwrapper.IClassTransformer;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Alternative to {@link PotionColorizerEventTransformer} used in {@link InjectionMode#DIRECT} mode.
+ * Injects a plain static call to the mod at the head of the hooked ItemPotion methods, and returns
+ * its result straight away unless it is {@link LiteModPotionColorizer#NO_VALUE}. No event objects
+ * are created and no listeners are dispatched.
+ */
+public class PotionColorizerDirectTransformer implements IClassTransformer {
+
+  /** Internal name of the class holding the hook methods. */
+  private static final String HOOK_CLASS = "net/easymfne/potioncolorizer/LiteModPotionColorizer";
+
+  /** Inject the direct hooks into ItemPotion when running in direct mode. */
+  @Override
+  public byte[] transform(String name, String transformedName, byte[] basicClass) {
+    if (basicClass == null || !isClass(PotionObf.itemPotion, transformedName)
+        || InjectionMode.getCurrent() != InjectionMode.DIRECT) {
+      return basicClass;
+    }
+    ClassNode classNode = new ClassNode();
+    new ClassReader(basicClass).accept(classNode, ClassReader.EXPAND_FRAMES);
+    int injected = 0;
+    for (MethodNode method : classNode.methods) {
+      if (matches(method, PotionObf.itemPotion_getColorFromItemStack, "(L%s;I)I")) {
+        injectHook(classNode, method, "getPotionColor");
+        injected++;
+      } else if (matches(method, PotionObf.itemPotion_hasEffect, "(L%s;)Z")) {
+        injectHook(classNode, method, "getHasEffect");
+        injected++;
+      }
+    }
+    LiteLoaderLogger.info("Injected %d direct hooks into %s.", injected, transformedName);
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    classNode.accept(writer);
+    return writer.toByteArray();
+  }
+
+  /**
+   * Check whether a class name refers to the class described by an obfuscation mapping.
+   * 
+   * @param mapping Obfuscation mapping of the class's name
+   * @param className The (possibly obfuscated) class name
+   * @return True if it is the class
+   */
+  private static boolean isClass(PotionObf mapping, String className) {
+    return Arrays.asList(mapping.names).contains(className);
+  }
+
+  /**
+   * Check whether a method is the one described by an obfuscation mapping. Obfuscated names are
+   * heavily overloaded, so the method's descriptor must match exactly, with ItemStack under any of
+   * its names.
+   * 
+   * @param method The method
+   * @param mapping Obfuscation mapping of the method's name
+   * @param descriptor The method's descriptor, with %s standing for ItemStack's internal name
+   * @return True if the method matches
+   */
+  private static boolean matches(MethodNode method, PotionObf mapping, String descriptor) {
+    if (!Arrays.asList(mapping.names).contains(method.name)) {
+      return false;
+    }
+    for (String itemStack : PotionObf.itemStack.names) {
+      if (method.desc.equals(String.format(descriptor, itemStack.replace('.', '/')))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Insert a call to a hook at the head of a method. The hook receives the method's arguments and
+   * returns an int, which the method returns unless it is {@link LiteModPotionColorizer#NO_VALUE}.
+   * 
+   * @param classNode The class being transformed
+   * @param method The method to inject into
+   * @param hookName Name of the static hook method
+   */
+  private static void injectHook(ClassNode classNode, MethodNode method, String hookName) {
+    Type[] arguments = Type.getArgumentTypes(method.desc);
+    Object[] locals = new Object[arguments.length + 1];
+    locals[0] = classNode.name;
+
+    InsnList hook = new InsnList();
+    int index = 1;
+    for (int i = 0; i < arguments.length; i++) {
+      hook.add(new VarInsnNode(arguments[i].getOpcode(Opcodes.ILOAD), index));
+      index += arguments[i].getSize();
+      locals[i + 1] = arguments[i].getSort() >= Type.ARRAY ? arguments[i].getInternalName()
+          : Opcodes.INTEGER;
+    }
+    LabelNode passThrough = new LabelNode();
+    hook.add(new MethodInsnNode(Opcodes.INVOKESTATIC, HOOK_CLASS, hookName, Type
+        .getMethodDescriptor(Type.INT_TYPE, arguments), false));
+    hook.add(new InsnNode(Opcodes.DUP));
+    hook.add(new InsnNode(Opcodes.ICONST_M1));
+    hook.add(new JumpInsnNode(Opcodes.IF_ICMPEQ, passThrough));
+    hook.add(new InsnNode(Opcodes.IRETURN));
+    hook.add(passThrough);
+    if ((classNode.version & 0xFFFF) >= Opcodes.V1_6) {
+      hook.add(new FrameNode(Opcodes.F_NEW, locals.length, locals, 1,
+          new Object[] {Opcodes.INTEGER}));
+    }
+    hook.add(new InsnNode(Opcodes.POP));
+    method.instructions.insert(hook);
+  }
+
+}
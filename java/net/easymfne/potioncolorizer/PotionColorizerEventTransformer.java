@@ -23,7 +23,8 @@ import com.mumfrey.liteloader.transformers.event.inject.MethodHead;
 
 /**
  * Event injection to allow modification of the return value of the getColorFromItemStack method in
- * ItemPotion.
+ * ItemPotion. Only active in {@link InjectionMode#EVENT} mode;
+ * {@link PotionColorizerDirectTransformer} takes over in {@link InjectionMode#DIRECT} mode.
  */
 public class PotionColorizerEventTransformer extends EventInjectionTransformer {
 
@@ -41,6 +42,9 @@ public class PotionColorizerEventTransformer extends EventInjectionTransformer {
   /** Add necessary events for catching and modifying method calls. */
   @Override
   protected void addEvents() {
+    if (InjectionMode.getCurrent() != InjectionMode.EVENT) {
+      return;
+    }
     addRecolorEvent();
     addDeglintEvent();
   }
@@ -25,6 +25,9 @@ public class PotionObf extends Obf {
   /** net.minecraft.item.ItemPotion class. */
   public static PotionObf itemPotion = new PotionObf("net.minecraft.item.ItemPotion", "amw");
 
+  /** net.minecraft.item.ItemStack class, needed for the descriptors of ItemPotion's methods. */
+  public static PotionObf itemStack = new PotionObf("net.minecraft.item.ItemStack", "amj");
+
   /** getColorFromItemStack(ItemStack, int) method from ItemPotion. */
   public static PotionObf itemPotion_getColorFromItemStack = new PotionObf("func_82790_a", "a",
       "getColorFromItemStack");
@@ -0,0 +1,178 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import net.minecraft.item.ItemPotion;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.Potion;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Works out once which of the names in each {@link PotionObf} mapping is in use, by scanning the
+ * declared members of the classes, so that hooks that will not be injected show up in the log. The
+ * liquid color field is unlocked once and kept as a setter handle, so applying colors afterwards
+ * involves no reflective lookups.
+ */
+public final class PotionObfResolver {
+
+  /** Setter of Potion's liquid color field, or null if it could not be resolved. */
+  private final MethodHandle liquidColorSetter;
+
+  private PotionObfResolver(MethodHandle liquidColorSetter) {
+    this.liquidColorSetter = liquidColorSetter;
+  }
+
+  /**
+   * Work out the name in use for every mapping, log a summary of the result and unlock the liquid
+   * color field. Must be called once Potion and ItemPotion have been loaded.
+   * 
+   * @return The resolver
+   */
+  public static PotionObfResolver resolve() {
+    Method[] itemPotion = ItemPotion.class.getDeclaredMethods();
+    Field liquidColor = findField(PotionObf.potion_liquidColor, Potion.class, Integer.TYPE);
+    String[] names =
+        {findName(PotionObf.itemPotion, ItemPotion.class),
+            findName(PotionObf.itemPotion_getColorFromItemStack, itemPotion, Integer.TYPE,
+                ItemStack.class, Integer.TYPE),
+            findName(PotionObf.itemPotion_hasEffect, itemPotion, Boolean.TYPE, ItemStack.class),
+            liquidColor != null ? liquidColor.getName() : null};
+    PotionObf[] mappings =
+        {PotionObf.itemPotion, PotionObf.itemPotion_getColorFromItemStack,
+            PotionObf.itemPotion_hasEffect, PotionObf.potion_liquidColor};
+    StringBuilder summary = new StringBuilder();
+    int resolved = 0;
+    for (int i = 0; i < mappings.length; i++) {
+      summary.append(i == 0 ? "" : ", ").append(mappings[i].name).append('=')
+          .append(names[i] != null ? names[i] : "?");
+      if (names[i] != null) {
+        resolved++;
+      }
+    }
+    LiteLoaderLogger.info("Resolved %d of %d obfuscated names: %s", resolved, mappings.length,
+        summary);
+    MethodHandle setter = liquidColor != null ? unreflectSetter(liquidColor) : null;
+    if (setter == null) {
+      LiteLoaderLogger.severe("Potion liquid colors cannot be changed; custom colors will not "
+          + "apply to potion particles.");
+    }
+    return new PotionObfResolver(setter);
+  }
+
+  /**
+   * Check whether a class mapping refers to a loaded class.
+   * 
+   * @param mapping The class's mapping
+   * @param type The loaded class
+   * @return The class's name, or null if it is not in the mapping
+   */
+  private static String findName(PotionObf mapping, Class<?> type) {
+    return Arrays.asList(mapping.names).contains(type.getName()) ? type.getName() : null;
+  }
+
+  /**
+   * Find the method a mapping refers to among a class's declared methods.
+   * 
+   * @param mapping The method's mapping
+   * @param methods The declared methods
+   * @param returnType The method's return type
+   * @param parameterTypes The method's parameter types
+   * @return The method's name, or null if no method matches
+   */
+  private static String findName(PotionObf mapping, Method[] methods, Class<?> returnType,
+      Class<?>... parameterTypes) {
+    for (Method method : methods) {
+      if (method.getReturnType() == returnType
+          && Arrays.equals(method.getParameterTypes(), parameterTypes)
+          && Arrays.asList(mapping.names).contains(method.getName())) {
+        return method.getName();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the field a mapping refers to among a class's declared fields. Names are tried in the
+   * order of {@link PotionObf#names}, so a short obfuscated name that happens to match an unrelated
+   * field loses to a full name.
+   * 
+   * @param mapping The field's mapping
+   * @param owner The class declaring the field
+   * @param type The field's type
+   * @return The field, or null if no field matches
+   */
+  private static Field findField(PotionObf mapping, Class<?> owner, Class<?> type) {
+    for (String name : mapping.names) {
+      for (Field field : owner.getDeclaredFields()) {
+        if (field.getType() == type && field.getName().equals(name)) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Unlock a field and create a setter handle for it.
+   * 
+   * @param field The field
+   * @return The setter, or null if the field cannot be unlocked
+   */
+  private static MethodHandle unreflectSetter(Field field) {
+    try {
+      field.setAccessible(true);
+      return MethodHandles.lookup().unreflectSetter(field);
+    } catch (IllegalAccessException e) {
+      LiteLoaderLogger.warning("Failed to unlock %s: %s", field.getName(), e.getMessage());
+    } catch (SecurityException e) {
+      LiteLoaderLogger.warning("Failed to unlock %s: %s", field.getName(), e.getMessage());
+    }
+    return null;
+  }
+
+  /** Check whether potion liquid colors can be changed. */
+  public boolean canSetLiquidColor() {
+    return liquidColorSetter != null;
+  }
+
+  /**
+   * Change the liquid color of a potion. Does nothing if the field could not be resolved.
+   * 
+   * @param potion The potion
+   * @param color The new liquid color
+   */
+  public void setLiquidColor(Potion potion, int color) {
+    if (liquidColorSetter == null) {
+      return;
+    }
+    try {
+      liquidColorSetter.invokeExact(potion, color);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that threads can increment without contending with each other. Each thread adds to one
+ * of several cells, chosen by its id and spaced a cache line apart, and the cells are only summed
+ * when the count is read.
+ */
+public class StripedCounter {
+
+  /** Number of longs from one cell to the next, keeping each cell on its own cache line. */
+  private static final int PADDING = 8;
+
+  /** Number of cells, a power of two. */
+  private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime()
+      .availableProcessors()) * 2 - 1);
+
+  /** The cells, only every {@link #PADDING}th of which is used. */
+  private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+  /** Add one to the count. */
+  public void increment() {
+    cells.getAndIncrement(index());
+  }
+
+  /**
+   * Add to the count.
+   * 
+   * @param delta The amount to add
+   */
+  public void add(long delta) {
+    cells.getAndAdd(index(), delta);
+  }
+
+  /** Get the current count, which is not an atomic snapshot while other threads are adding. */
+  public long sum() {
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      sum += cells.get(i * PADDING);
+    }
+    return sum;
+  }
+
+  /** Reset the count to zero. */
+  public void reset() {
+    for (int i = 0; i < STRIPES; i++) {
+      cells.set(i * PADDING, 0L);
+    }
+  }
+
+  /** Get the index of the calling thread's cell. */
+  private static int index() {
+    return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+  }
+
+}
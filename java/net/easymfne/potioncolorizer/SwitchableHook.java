@@ -0,0 +1,134 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * A hook whose implementation can be swapped out at runtime. The hook is invoked through a mutable
+ * call site, which points either at the mod's implementation or at a constant
+ * {@link LiteModPotionColorizer#NO_VALUE} that leaves the vanilla code to run. While metrics are
+ * collected, an enabled hook points at a timed variant of the implementation instead, so that the
+ * untimed targets carry no metrics code at all. When the invoker is held in a static final field,
+ * the JIT compiles the current target straight into the caller and recompiles it when the target is
+ * swapped, so a disabled hook costs nothing per call.
+ */
+public class SwitchableHook {
+
+  /** Call site the hook is invoked through. */
+  private final MutableCallSite site;
+
+  /** Targets for when the hook is enabled, enabled while timed, and disabled. */
+  private final MethodHandle enabledTarget;
+  private final MethodHandle timedTarget;
+  private final MethodHandle disabledTarget;
+
+  /** Whether the hook is currently enabled and whether it is timed while enabled. */
+  private boolean enabled;
+  private boolean timed;
+
+  /**
+   * Create a new hook, initially disabled and untimed.
+   * 
+   * @param enabledTarget The implementation to call when the hook is enabled; must return an int
+   * @param timedTarget The implementation to call when the hook is enabled and timed; must have the
+   *        same type as the enabled target
+   */
+  public SwitchableHook(MethodHandle enabledTarget, MethodHandle timedTarget) {
+    if (!timedTarget.type().equals(enabledTarget.type())) {
+      throw new IllegalArgumentException("Timed target type " + timedTarget.type()
+          + " does not match " + enabledTarget.type());
+    }
+    this.enabledTarget = enabledTarget;
+    this.timedTarget = timedTarget;
+    this.disabledTarget =
+        MethodHandles.dropArguments(
+            MethodHandles.constant(int.class, LiteModPotionColorizer.NO_VALUE), 0, enabledTarget
+                .type().parameterList());
+    this.site = new MutableCallSite(disabledTarget);
+  }
+
+  /**
+   * Create a new hook, initially disabled and untimed, that always returns the same value when
+   * enabled.
+   * 
+   * @param value The value to return when enabled
+   * @param timedTarget The implementation to call when the hook is enabled and timed, which should
+   *        return the same value; its type is the type of the hook
+   * @return The new hook
+   */
+  public static SwitchableHook constant(int value, MethodHandle timedTarget) {
+    return new SwitchableHook(MethodHandles.dropArguments(MethodHandles.constant(int.class, value),
+        0, timedTarget.type().parameterList()), timedTarget);
+  }
+
+  /**
+   * Get the handle to invoke the hook through. It should be kept in a static final field so that
+   * the JIT can treat the current target as a constant.
+   * 
+   * @return Invoker of the hook's call site
+   */
+  public MethodHandle getInvoker() {
+    return site.dynamicInvoker();
+  }
+
+  /** Check whether the hook is currently enabled. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enable or disable the hook, swapping its call site's target if the state changes.
+   * 
+   * @param enabled Whether the hook should be enabled
+   */
+  public void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) {
+      return;
+    }
+    this.enabled = enabled;
+    updateTarget();
+  }
+
+  /** Check whether the hook is timed while enabled. */
+  public boolean isTimed() {
+    return timed;
+  }
+
+  /**
+   * Choose whether the hook calls its timed implementation while enabled, swapping its call site's
+   * target if that changes what is called.
+   * 
+   * @param timed Whether the hook should be timed
+   */
+  public void setTimed(boolean timed) {
+    if (this.timed == timed) {
+      return;
+    }
+    this.timed = timed;
+    if (enabled) {
+      updateTarget();
+    }
+  }
+
+  /** Point the call site at the target for the current state and publish it to every thread. */
+  private void updateTarget() {
+    site.setTarget(!enabled ? disabledTarget : timed ? timedTarget : enabledTarget);
+    MutableCallSite.syncAll(new MutableCallSite[] {site});
+  }
+
+}
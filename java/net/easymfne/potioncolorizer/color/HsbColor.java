@@ -0,0 +1,156 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.color;
+
+/**
+ * Conversion between RGB colors and hue, saturation and brightness (also known as HSV). The results
+ * are exactly those of java.awt.Color's RGBtoHSB and HSBtoRGB, which do the same float arithmetic,
+ * but nothing is allocated and AWT is never loaded.
+ */
+public final class HsbColor {
+
+  private HsbColor() {}
+
+  /**
+   * Convert hue, saturation and brightness to an opaque RGB color, as Color.HSBtoRGB does.
+   * 
+   * @param hue The hue, of which only the fractional part is used
+   * @param saturation The saturation, from 0 to 1
+   * @param brightness The brightness, from 0 to 1
+   * @return The packed color, with full alpha
+   */
+  public static int toRgb(float hue, float saturation, float brightness) {
+    int value = toChannel(brightness);
+    if (saturation == 0) {
+      return PackedColor.opaque(PackedColor.pack(value, value, value));
+    }
+    float sector = (hue - (float) Math.floor(hue)) * 6.0F;
+    float fraction = sector - (float) Math.floor(sector);
+    int p = toChannel(brightness * (1.0F - saturation));
+    int q = toChannel(brightness * (1.0F - saturation * fraction));
+    int t = toChannel(brightness * (1.0F - (saturation * (1.0F - fraction))));
+    switch ((int) sector) {
+      case 0:
+        return PackedColor.opaque(PackedColor.pack(value, t, p));
+      case 1:
+        return PackedColor.opaque(PackedColor.pack(q, value, p));
+      case 2:
+        return PackedColor.opaque(PackedColor.pack(p, value, t));
+      case 3:
+        return PackedColor.opaque(PackedColor.pack(p, q, value));
+      case 4:
+        return PackedColor.opaque(PackedColor.pack(t, p, value));
+      case 5:
+        return PackedColor.opaque(PackedColor.pack(value, p, q));
+      default:
+        return PackedColor.OPAQUE;
+    }
+  }
+
+  /**
+   * Get the hue of a color, as the first value of Color.RGBtoHSB.
+   * 
+   * @param rgb The packed color; alpha is ignored
+   * @return The hue, from 0 up to but excluding 1
+   */
+  public static float hue(int rgb) {
+    int red = PackedColor.red(rgb);
+    int green = PackedColor.green(rgb);
+    int blue = PackedColor.blue(rgb);
+    return hue(red, green, blue, max(red, green, blue), min(red, green, blue));
+  }
+
+  /**
+   * Get the saturation of a color, as the second value of Color.RGBtoHSB.
+   * 
+   * @param rgb The packed color; alpha is ignored
+   * @return The saturation, from 0 to 1
+   */
+  public static float saturation(int rgb) {
+    int red = PackedColor.red(rgb);
+    int green = PackedColor.green(rgb);
+    int blue = PackedColor.blue(rgb);
+    return saturation(max(red, green, blue), min(red, green, blue));
+  }
+
+  /**
+   * Get the brightness of a color, as the third value of Color.RGBtoHSB.
+   * 
+   * @param rgb The packed color; alpha is ignored
+   * @return The brightness, from 0 to 1
+   */
+  public static float brightness(int rgb) {
+    return ((float) max(PackedColor.red(rgb), PackedColor.green(rgb), PackedColor.blue(rgb)))
+        / 255.0F;
+  }
+
+  /**
+   * Convert a color to hue, saturation and brightness, as Color.RGBtoHSB does.
+   * 
+   * @param rgb The packed color; alpha is ignored
+   * @param hsb Array to store the hue, saturation and brightness in
+   * @return The array
+   */
+  public static float[] toHsb(int rgb, float[] hsb) {
+    int red = PackedColor.red(rgb);
+    int green = PackedColor.green(rgb);
+    int blue = PackedColor.blue(rgb);
+    int max = max(red, green, blue);
+    int min = min(red, green, blue);
+    hsb[0] = hue(red, green, blue, max, min);
+    hsb[1] = saturation(max, min);
+    hsb[2] = ((float) max) / 255.0F;
+    return hsb;
+  }
+
+  /** Work out the hue of a color from its channels and their maximum and minimum. */
+  private static float hue(int red, int green, int blue, int max, int min) {
+    if (max == min) {
+      return 0;
+    }
+    float redDistance = ((float) (max - red)) / ((float) (max - min));
+    float greenDistance = ((float) (max - green)) / ((float) (max - min));
+    float blueDistance = ((float) (max - blue)) / ((float) (max - min));
+    float hue;
+    if (red == max) {
+      hue = blueDistance - greenDistance;
+    } else if (green == max) {
+      hue = 2.0F + redDistance - blueDistance;
+    } else {
+      hue = 4.0F + greenDistance - redDistance;
+    }
+    hue = hue / 6.0F;
+    return hue < 0 ? hue + 1.0F : hue;
+  }
+
+  /** Work out the saturation of a color from the maximum and minimum of its channels. */
+  private static float saturation(int max, int min) {
+    return max == 0 ? 0 : ((float) (max - min)) / ((float) max);
+  }
+
+  private static int max(int red, int green, int blue) {
+    return Math.max(red, Math.max(green, blue));
+  }
+
+  private static int min(int red, int green, int blue) {
+    return Math.min(red, Math.min(green, blue));
+  }
+
+  /** Convert a value from 0 to 1 to a channel value from 0 to 255, rounding as AWT does. */
+  private static int toChannel(float value) {
+    return (int) (value * 255.0F + 0.5F);
+  }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.color;
+
+/**
+ * Conversion between 8-bit sRGB channel values and linear light, in fixed point, through lookup
+ * tables built once.
+ */
+public final class LinearLight {
+
+  /** Number of fractional bits of fixed-point values, and the value of 1.0. */
+  public static final int SHIFT = 14;
+  public static final int ONE = 1 << SHIFT;
+
+  /** Linear light value of each sRGB channel value. */
+  private static final int[] TO_LINEAR = new int[256];
+
+  /** sRGB channel value of each linear light value. */
+  private static final byte[] TO_SRGB = new byte[ONE + 1];
+
+  static {
+    for (int value = 0; value < TO_LINEAR.length; value++) {
+      double channel = value / 255.0;
+      double linear =
+          channel <= 0.04045 ? channel / 12.92 : Math.pow((channel + 0.055) / 1.055, 2.4);
+      TO_LINEAR[value] = (int) Math.round(linear * ONE);
+    }
+    for (int value = 0; value < TO_SRGB.length; value++) {
+      double linear = (double) value / ONE;
+      double channel =
+          linear <= 0.0031308 ? linear * 12.92 : 1.055 * Math.pow(linear, 1.0 / 2.4) - 0.055;
+      TO_SRGB[value] = (byte) Math.round(channel * 255.0);
+    }
+  }
+
+  private LinearLight() {}
+
+  /**
+   * Convert an sRGB channel value to linear light.
+   * 
+   * @param channel The channel value, from 0 to 255
+   * @return The fixed-point linear light value
+   */
+  public static int toLinear(int channel) {
+    return TO_LINEAR[channel];
+  }
+
+  /**
+   * Convert a linear light value to an sRGB channel value, clamping it to the gamut.
+   * 
+   * @param linear The fixed-point linear light value
+   * @return The channel value, from 0 to 255
+   */
+  public static int toSrgb(int linear) {
+    return TO_SRGB[linear < 0 ? 0 : linear > ONE ? ONE : linear] & 0xFF;
+  }
+
+  /**
+   * Convert a linear light color to a packed sRGB color.
+   * 
+   * @param red Fixed-point linear red
+   * @param green Fixed-point linear green
+   * @param blue Fixed-point linear blue
+   * @return The packed color, without alpha
+   */
+  public static int toRgb(int red, int green, int blue) {
+    return PackedColor.pack(toSrgb(red), toSrgb(green), toSrgb(blue));
+  }
+
+}
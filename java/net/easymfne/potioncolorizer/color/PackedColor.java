@@ -0,0 +1,69 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.color;
+
+/**
+ * Helpers for colors packed into an int as 0xAARRGGBB, the way Minecraft and AWT pack them.
+ */
+public final class PackedColor {
+
+  /** Alpha bits of an opaque color. */
+  public static final int OPAQUE = 0xFF000000;
+
+  private PackedColor() {}
+
+  /** Get the alpha channel of a color, from 0 to 255. */
+  public static int alpha(int color) {
+    return color >>> 24;
+  }
+
+  /** Get the red channel of a color, from 0 to 255. */
+  public static int red(int color) {
+    return color >> 16 & 0xFF;
+  }
+
+  /** Get the green channel of a color, from 0 to 255. */
+  public static int green(int color) {
+    return color >> 8 & 0xFF;
+  }
+
+  /** Get the blue channel of a color, from 0 to 255. */
+  public static int blue(int color) {
+    return color & 0xFF;
+  }
+
+  /**
+   * Pack channels into an RGB color without alpha.
+   * 
+   * @param red Red channel, of which only the low 8 bits are used
+   * @param green Green channel, of which only the low 8 bits are used
+   * @param blue Blue channel, of which only the low 8 bits are used
+   * @return The packed color
+   */
+  public static int pack(int red, int green, int blue) {
+    return (red & 0xFF) << 16 | (green & 0xFF) << 8 | blue & 0xFF;
+  }
+
+  /** Get the RGB part of a color, without alpha. */
+  public static int rgb(int color) {
+    return color & 0xFFFFFF;
+  }
+
+  /** Make a color fully opaque. */
+  public static int opaque(int color) {
+    return OPAQUE | color;
+  }
+
+}
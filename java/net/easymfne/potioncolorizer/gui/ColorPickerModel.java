@@ -0,0 +1,158 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import net.easymfne.potioncolorizer.color.HsbColor;
+import net.easymfne.potioncolorizer.color.PackedColor;
+
+/**
+ * Color state of a {@link GuiColorPicker}, kept apart from its widgets. The color is held as hue,
+ * saturation and brightness, and the RGB values derived from them are only recomputed when they
+ * are asked for after a change. Setters report whether they changed anything, so that the picker
+ * only refreshes its widgets on real changes. Nothing in it depends on Minecraft or AWT.
+ */
+public class ColorPickerModel {
+
+  /** Bit offsets of the components of an RGB color. */
+  public static final int RED = 16, GREEN = 8, BLUE = 0;
+
+  /** The color's hue, saturation and brightness. */
+  private float hue, saturation, brightness;
+
+  /** The color, and whether it needs to be recomputed from the HSB values. */
+  private int rgb;
+  private boolean rgbDirty = true;
+
+  /** The color at full brightness, and whether it needs to be recomputed. */
+  private int fullBrightnessRgb;
+  private boolean fullBrightnessDirty = true;
+
+  /**
+   * @param rgb The initial RGB color
+   */
+  public ColorPickerModel(int rgb) {
+    setRgb(rgb);
+  }
+
+  /** Get the color's hue, from 0 to 1. */
+  public float getHue() {
+    return hue;
+  }
+
+  /** Get the color's saturation, from 0 to 1. */
+  public float getSaturation() {
+    return saturation;
+  }
+
+  /** Get the color's brightness, from 0 to 1. */
+  public float getBrightness() {
+    return brightness;
+  }
+
+  /**
+   * Set the color's hue and saturation, keeping its brightness.
+   * 
+   * @param hue The new hue, from 0 to 1
+   * @param saturation The new saturation, from 0 to 1
+   * @return True if the color changed
+   */
+  public boolean setHueSaturation(float hue, float saturation) {
+    if (hue == this.hue && saturation == this.saturation) {
+      return false;
+    }
+    this.hue = hue;
+    this.saturation = saturation;
+    rgbDirty = true;
+    fullBrightnessDirty = true;
+    return true;
+  }
+
+  /**
+   * Set the color's brightness, keeping its hue and saturation.
+   * 
+   * @param brightness The new brightness, from 0 to 1
+   * @return True if the color changed
+   */
+  public boolean setBrightness(float brightness) {
+    if (brightness == this.brightness) {
+      return false;
+    }
+    this.brightness = brightness;
+    rgbDirty = true;
+    return true;
+  }
+
+  /** Get the color as RGB. */
+  public int getRgb() {
+    if (rgbDirty) {
+      rgb = PackedColor.rgb(HsbColor.toRgb(hue, saturation, brightness));
+      rgbDirty = false;
+    }
+    return rgb;
+  }
+
+  /**
+   * Set the color from RGB. The color is kept exactly as given rather than as converted back from
+   * its hue, saturation and brightness.
+   * 
+   * @param rgb The new RGB color
+   * @return True if the color changed
+   */
+  public boolean setRgb(int rgb) {
+    rgb = PackedColor.rgb(rgb);
+    if (rgb == getRgb()) {
+      return false;
+    }
+    hue = HsbColor.hue(rgb);
+    saturation = HsbColor.saturation(rgb);
+    brightness = HsbColor.brightness(rgb);
+    this.rgb = rgb;
+    rgbDirty = false;
+    fullBrightnessDirty = true;
+    return true;
+  }
+
+  /**
+   * Get one component of the RGB color.
+   * 
+   * @param component {@link #RED}, {@link #GREEN} or {@link #BLUE}
+   * @return The component's value, from 0 to 255
+   */
+  public int getComponent(int component) {
+    return getRgb() >> component & 0xFF;
+  }
+
+  /**
+   * Set one component of the RGB color, keeping the others.
+   * 
+   * @param component {@link #RED}, {@link #GREEN} or {@link #BLUE}
+   * @param value The component's new value, clamped to 0 to 255
+   * @return True if the color changed
+   */
+  public boolean setComponent(int component, int value) {
+    value = Math.min(Math.max(value, 0), 255);
+    return setRgb(getRgb() & ~(0xFF << component) | value << component);
+  }
+
+  /** Get the color at full brightness as RGB, for drawing the brightness bar. */
+  public int getFullBrightnessRgb() {
+    if (fullBrightnessDirty) {
+      fullBrightnessRgb = PackedColor.rgb(HsbColor.toRgb(hue, saturation, 1.0F));
+      fullBrightnessDirty = false;
+    }
+    return fullBrightnessRgb;
+  }
+
+}
@@ -0,0 +1,334 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import static org.lwjgl.opengl.GL11.GL_LINES;
+import static org.lwjgl.opengl.GL11.GL_ONE;
+import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_OR_REVERSE;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_ZERO;
+import static org.lwjgl.opengl.GL11.glLineWidth;
+
+import java.util.Arrays;
+
+import net.easymfne.potioncolorizer.color.PackedColor;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+
+/**
+ * Collects the quads and lines drawn by {@link GuiControl} and draws each run of primitives that
+ * share the same GL state with a single Tessellator draw, setting the state up only once for it.
+ * Outside of {@link #begin()} and {@link #end()} every primitive is drawn straight away, as before;
+ * between them, primitives are held back until the state changes or {@link #flush()} is called,
+ * which callers must do before drawing anything the held primitives should appear beneath. Every
+ * vertex carries its own color, so textured quads are tinted with the color given to
+ * {@link #setTint(int)} rather than the current GL color.
+ */
+public class GuiBatch {
+
+  /** The GL states primitives can be drawn with. */
+  public enum State {
+
+    /** Flat colored, alpha blended quads. */
+    COLORED_QUADS(GL_QUADS, false, false),
+
+    /** Quads textured with the currently bound texture. */
+    TEXTURED_QUADS(GL_QUADS, true, false),
+
+    /** Flat colored, alpha blended lines. */
+    COLORED_LINES(GL_LINES, false, false),
+
+    /** Lines combined with what is beneath them by an inverting logic operation. */
+    INVERTED_LINES(GL_LINES, false, true);
+
+    /** Tessellator drawing mode. */
+    public final int mode;
+
+    /** Whether texturing is enabled. */
+    public final boolean textured;
+
+    /** Whether the color logic operation is enabled. */
+    public final boolean inverted;
+
+    private State(int mode, boolean textured, boolean inverted) {
+      this.mode = mode;
+      this.textured = textured;
+      this.inverted = inverted;
+    }
+
+  }
+
+  /** Draws the collected primitives. */
+  public interface Backend {
+
+    /**
+     * Draw a run of primitives sharing the same state.
+     * 
+     * @param state The GL state to draw with
+     * @param lineWidth Width of lines, in pixels
+     * @param vertices Vertices of the primitives, {@link GuiBatch#STRIDE} floats each
+     * @param colors ARGB colors of the vertices
+     * @param vertexCount Number of vertices
+     */
+    void draw(State state, float lineWidth, float[] vertices, int[] colors, int vertexCount);
+
+  }
+
+  /** Floats per vertex: x, y, z, u and v. The colors are kept apart, as ints. */
+  public static final int STRIDE = 5;
+
+  /** The batch used by the controls. */
+  private static final GuiBatch instance = new GuiBatch(new TessellatorBackend());
+
+  /** Backend drawing the primitives. */
+  private Backend backend;
+
+  /** State, line width, vertices and vertex colors of the held back primitives. */
+  private State state;
+  private float lineWidth;
+  private float[] vertices = new float[STRIDE * 64];
+  private int[] colors = new int[64];
+  private int vertexCount;
+
+  /** ARGB color textured quads are tinted with. */
+  private int tint = 0xFFFFFFFF;
+
+  /** Number of unmatched calls to {@link #begin()}. */
+  private int depth;
+
+  /**
+   * @param backend Backend to draw the primitives with
+   */
+  public GuiBatch(Backend backend) {
+    this.backend = backend;
+  }
+
+  /** Get the batch used by the controls. */
+  public static GuiBatch getInstance() {
+    return instance;
+  }
+
+  /**
+   * Draw with a different backend, drawing any held back primitives with the current one first.
+   * 
+   * @param backend The new backend
+   * @return The previous backend
+   */
+  public Backend setBackend(Backend backend) {
+    flush();
+    Backend previous = this.backend;
+    this.backend = backend;
+    return previous;
+  }
+
+  /** Get the ARGB color textured quads are tinted with. */
+  public int getTint() {
+    return tint;
+  }
+
+  /**
+   * Set the color to tint the textured quads added from now on with, in place of glColor.
+   * 
+   * @param color ARGB color, 0xFFFFFFFF to leave the texture as it is
+   */
+  public void setTint(int color) {
+    tint = color;
+  }
+
+  /** Start holding back primitives. Calls may be nested. */
+  public void begin() {
+    depth++;
+  }
+
+  /** Stop holding back primitives once every call to {@link #begin()} has been matched. */
+  public void end() {
+    if (depth > 0 && --depth == 0) {
+      flush();
+    }
+  }
+
+  /** Draw the held back primitives. */
+  public void flush() {
+    if (vertexCount > 0) {
+      backend.draw(state, lineWidth, vertices, colors, vertexCount);
+      vertexCount = 0;
+    }
+  }
+
+  /**
+   * Add a flat colored rectangle.
+   * 
+   * @param x1 Left edge X coordinate
+   * @param y1 Top edge Y coordinate
+   * @param x2 Right edge X coordinate
+   * @param y2 Bottom edge Y coordinate
+   * @param color ARGB color
+   */
+  public void rect(float x1, float y1, float x2, float y2, int color) {
+    quad(x1, y2, x2, y2, x2, y1, x1, y1, 0, color);
+  }
+
+  /**
+   * Add a flat colored quad. A triangle can be added by repeating its last corner.
+   * 
+   * @param x1 X coordinate of the first corner, and so on counterclockwise
+   * @param y1 Y coordinate of the first corner, and so on counterclockwise
+   * @param z Z coordinate of all corners
+   * @param color ARGB color
+   */
+  public void quad(float x1, float y1, float x2, float y2, float x3, float y3, float x4,
+      float y4, float z, int color) {
+    prepare(State.COLORED_QUADS, lineWidth, 4);
+    vertex(x1, y1, z, 0, 0, color);
+    vertex(x2, y2, z, 0, 0, color);
+    vertex(x3, y3, z, 0, 0, color);
+    vertex(x4, y4, z, 0, 0, color);
+    finish();
+  }
+
+  /**
+   * Add a quad tinted with the current tint, textured with whichever texture is bound when the
+   * batch is flushed.
+   * 
+   * @param x1 X coordinate of the first corner, and so on counterclockwise
+   * @param y1 Y coordinate of the first corner, and so on counterclockwise
+   * @param u1 U coordinate of the first corner, and so on counterclockwise
+   * @param v1 V coordinate of the first corner, and so on counterclockwise
+   * @param z Z coordinate of all corners
+   */
+  public void texturedQuad(float x1, float y1, float u1, float v1, float x2, float y2, float u2,
+      float v2, float x3, float y3, float u3, float v3, float x4, float y4, float u4, float v4,
+      float z) {
+    prepare(State.TEXTURED_QUADS, lineWidth, 4);
+    vertex(x1, y1, z, u1, v1, tint);
+    vertex(x2, y2, z, u2, v2, tint);
+    vertex(x3, y3, z, u3, v3, tint);
+    vertex(x4, y4, z, u4, v4, tint);
+    finish();
+  }
+
+  /**
+   * Add a line.
+   * 
+   * @param x1 Start X coordinate
+   * @param y1 Start Y coordinate
+   * @param x2 End X coordinate
+   * @param y2 End Y coordinate
+   * @param width Line width, in pixels
+   * @param color ARGB color
+   * @param inverted Whether to invert what is beneath the line instead of blending with it
+   */
+  public void line(float x1, float y1, float x2, float y2, float width, int color,
+      boolean inverted) {
+    prepare(inverted ? State.INVERTED_LINES : State.COLORED_LINES, width, 2);
+    vertex(x1, y1, 0, 0, 0, color);
+    vertex(x2, y2, 0, 0, 0, color);
+    finish();
+  }
+
+  /**
+   * Make room for a primitive, drawing the held back ones first if their state differs.
+   * 
+   * @param primitiveState State of the primitive
+   * @param primitiveLineWidth Line width of the primitive
+   * @param count Number of vertices of the primitive
+   */
+  private void prepare(State primitiveState, float primitiveLineWidth, int count) {
+    if (primitiveState != state || primitiveState.mode == GL_LINES
+        && primitiveLineWidth != lineWidth) {
+      flush();
+      state = primitiveState;
+      lineWidth = primitiveLineWidth;
+    }
+    if (vertexCount + count > colors.length) {
+      colors = Arrays.copyOf(colors, Math.max(colors.length * 2, vertexCount + count));
+      vertices = Arrays.copyOf(vertices, colors.length * STRIDE);
+    }
+  }
+
+  /** Append a vertex. */
+  private void vertex(float x, float y, float z, float u, float v, int color) {
+    int offset = vertexCount * STRIDE;
+    vertices[offset] = x;
+    vertices[offset + 1] = y;
+    vertices[offset + 2] = z;
+    vertices[offset + 3] = u;
+    vertices[offset + 4] = v;
+    colors[vertexCount++] = color;
+  }
+
+  /** Draw a finished primitive straight away unless primitives are being held back. */
+  private void finish() {
+    if (depth == 0) {
+      flush();
+    }
+  }
+
+  /**
+   * Backend drawing through the Tessellator. Blending, texturing, lighting and the logic operation
+   * are switched through GlStateManager, the way Gui.drawRect does, so that its cached view of the
+   * GL state stays right for whatever vanilla draws next.
+   */
+  private static class TessellatorBackend implements Backend {
+
+    @Override
+    public void draw(State state, float lineWidth, float[] vertices, int[] colors,
+        int vertexCount) {
+      if (!state.textured) {
+        GlStateManager.enableBlend();
+        GlStateManager.disableTexture2D();
+        GlStateManager.tryBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ZERO);
+      }
+      if (state.mode == GL_LINES) {
+        glLineWidth(lineWidth);
+      }
+      if (state.inverted) {
+        GlStateManager.disableLighting();
+        GlStateManager.enableColorLogic();
+        GlStateManager.colorLogicOp(GL_OR_REVERSE);
+      }
+
+      Tessellator tessellator = Tessellator.getInstance();
+      WorldRenderer renderer = tessellator.getWorldRenderer();
+      renderer.startDrawing(state.mode);
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        int offset = vertex * STRIDE;
+        int color = colors[vertex];
+        renderer.setColorRGBA(PackedColor.red(color), PackedColor.green(color),
+            PackedColor.blue(color), PackedColor.alpha(color));
+        if (state.textured) {
+          renderer.addVertexWithUV(vertices[offset], vertices[offset + 1], vertices[offset + 2],
+              vertices[offset + 3], vertices[offset + 4]);
+        } else {
+          renderer.addVertex(vertices[offset], vertices[offset + 1], vertices[offset + 2]);
+        }
+      }
+      tessellator.draw();
+
+      if (state.inverted) {
+        GlStateManager.disableColorLogic();
+      }
+      if (!state.textured) {
+        GlStateManager.enableTexture2D();
+        GlStateManager.disableBlend();
+      }
+    }
+
+  }
+
+}
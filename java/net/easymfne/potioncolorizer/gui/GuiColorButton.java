@@ -15,6 +15,7 @@
 package net.easymfne.potioncolorizer.gui;
 
 import static org.lwjgl.opengl.GL11.glColor4f;
+import net.easymfne.potioncolorizer.color.PackedColor;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.I18n;
 
@@ -40,10 +41,19 @@ public class GuiColorButton extends GuiControl {
     return this.potionName;
   }
 
+  public void setName(String name) {
+    this.potionName = name;
+    this.displayString = I18n.format(name);
+  }
+
   public int getColor() {
     return this.color;
   }
 
+  public void setColor(int color) {
+    this.color = color;
+  }
+
   @Override
   public void drawControl(Minecraft minecraft, int mouseX, int mouseY) {
     if (this.visible) {
@@ -61,7 +71,7 @@ public class GuiColorButton extends GuiControl {
       glColor4f(1.0F, 1.0F, 1.0F, 1.0F);
 
       drawRect(this.xPosition + 1, this.yPosition + 1, this.xPosition + this.width - 1,
-          this.yPosition + this.height - 1, 0xFF000000 | this.color);
+          this.yPosition + this.height - 1, PackedColor.opaque(this.color));
 
       this.mouseDragged(minecraft, mouseX, mouseY);
 
@@ -84,6 +94,10 @@ public class GuiColorButton extends GuiControl {
     }
   }
 
+  public boolean isPickerOpen() {
+    return this.picker != null;
+  }
+
   public void closePicker(boolean getColor) {
     if (getColor)
       this.color = this.picker.getColor();
@@ -109,7 +123,8 @@ public class GuiColorButton extends GuiControl {
         int yPos = Math.min(this.yPosition, GuiControl.lastScreenHeight - 175);
 
         this.picker =
-            new GuiColorPicker(minecraft, 1, xPos, yPos, 0xFFFFFF & this.color, "Choose color");
+            new GuiColorPicker(minecraft, 1, xPos, yPos, PackedColor.rgb(this.color),
+                "Choose color");
         this.pickerClicked = false;
       }
 
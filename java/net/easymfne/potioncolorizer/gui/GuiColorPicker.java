@@ -14,11 +14,7 @@
  */
 package net.easymfne.potioncolorizer.gui;
 
-import static org.lwjgl.opengl.GL11.glColor4f;
-
-import java.awt.Color;
-import java.awt.Rectangle;
-
+import net.easymfne.potioncolorizer.color.PackedColor;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.gui.GuiTextField;
@@ -36,14 +32,8 @@ public class GuiColorPicker extends GuiControl {
   public static final ResourceLocation COLORPICKER_PICKER = new ResourceLocation("potioncolorizer",
       "textures/gui/picker.png");
 
-  /** Indices into the HSB array. */
-  private static final int H = 0, S = 1, B = 2;
-
-  /** HSB values from Color.RGBtoHSB. */
-  private float[] hsb;
-
-  /** Original and altered RGB values. */
-  private int rgb;
+  /** The color being picked. */
+  private ColorPickerModel model;
 
   /** Text boxes for manual entry. */
   private GuiTextField txtRed, txtGreen, txtBlue;
@@ -54,8 +44,8 @@ public class GuiColorPicker extends GuiControl {
   /** Flags to track whether dragging a slider. */
   private boolean draggingHS, draggingB;
 
-  /** Slider rectangles. */
-  private Rectangle rectHSArea, rectBArea;
+  /** Slider rectangles, as x, y, width and height. */
+  private int[] rectHSArea, rectBArea;
 
   /** Set when the user clicks ok or cancel. */
   private DialogResult result = DialogResult.None;
@@ -66,8 +56,7 @@ public class GuiColorPicker extends GuiControl {
       String displayText) {
     super(minecraft, controlId, xPos, yPos, 206, 173, displayText);
 
-    Color color = new Color(initialColor);
-    this.hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
+    this.model = new ColorPickerModel(initialColor);
 
     this.fontRenderer = minecraft.fontRendererObj;
     this.txtRed =
@@ -81,8 +70,8 @@ public class GuiColorPicker extends GuiControl {
     this.txtGreen.setMaxStringLength(3);
     this.txtBlue.setMaxStringLength(3);
 
-    this.rectHSArea = new Rectangle(this.xPosition + 10, this.yPosition + 10, 128, 128);
-    this.rectBArea = new Rectangle(this.xPosition + 143, this.yPosition + 10, 15, 128);
+    this.rectHSArea = new int[] {this.xPosition + 10, this.yPosition + 10, 128, 128};
+    this.rectBArea = new int[] {this.xPosition + 143, this.yPosition + 10, 15, 128};
 
     this.btnOk =
         new GuiControl(minecraft, 0, this.xPosition + 9, this.yPosition + 145, 55, 20,
@@ -91,7 +80,7 @@ public class GuiColorPicker extends GuiControl {
         new GuiControl(minecraft, 1, this.xPosition + 70, this.yPosition + 145, 65, 20,
             I18n.format("config.picker.cancel"));
 
-    this.updateColor();
+    this.updateText();
   }
 
   public DialogResult getDialogResult() {
@@ -99,8 +88,7 @@ public class GuiColorPicker extends GuiControl {
   }
 
   public int getColor() {
-    int rgb = (0xFFFFFF & Color.HSBtoRGB(this.hsb[H], this.hsb[S], this.hsb[B]));
-    return rgb;
+    return this.model.getRgb();
   }
 
   @Override
@@ -108,14 +96,16 @@ public class GuiColorPicker extends GuiControl {
     this.mouseDragged(minecraft, mouseX, mouseY);
 
     // Calculate coordinates for the selectors
-    int hPos = this.xPosition + 10 + (int) (128F * this.hsb[H]);
-    int sPos = this.yPosition + 10 + (128 - (int) (128F * this.hsb[S]));
-    int bPos = this.yPosition + 10 + (128 - (int) (128F * this.hsb[B]));
+    int hPos = this.xPosition + 10 + (int) (128F * this.model.getHue());
+    int sPos = this.yPosition + 10 + (128 - (int) (128F * this.model.getSaturation()));
+    int bPos = this.yPosition + 10 + (128 - (int) (128F * this.model.getBrightness()));
 
     // Calculate B color
-    int brightness = Color.HSBtoRGB(this.hsb[H], this.hsb[S], 1.0F) | 0xFF000000;
+    int brightness = PackedColor.opaque(this.model.getFullBrightnessRgb());
 
-    // Draw backgrounds
+    // Draw backgrounds, batching the quads until something is drawn over them
+    GuiBatch batch = GuiBatch.getInstance();
+    batch.begin();
     drawRect(this.xPosition, this.yPosition, this.xPosition + this.width, this.yPosition
         + this.height, 0xAA000000); // Background
     drawRect(this.xPosition + 9, this.yPosition + 9, this.xPosition + 139, this.yPosition + 139,
@@ -127,12 +117,13 @@ public class GuiColorPicker extends GuiControl {
 
     // Draw color picker
     this.mc.getTextureManager().bindTexture(GuiColorPicker.COLORPICKER_PICKER);
-    glColor4f(1.0F, 1.0F, 1.0F, 1.0F);
+    batch.setTint(0xFFFFFFFF);
     this.drawTexturedModalRect(this.xPosition + 10, this.yPosition + 10, this.xPosition + 138,
         this.yPosition + 138, 0, 0, 256, 256);
     this.drawCrossHair(hPos, sPos, 5, 1, 0xFF000000);
 
     // Draw brightness bar
+    batch.flush();
     this.drawGradientRect(this.xPosition + 143, this.yPosition + 10, this.xPosition + 158,
         this.yPosition + 138, brightness, 0xFF000000);
     this.drawRotText(this.fontRenderer, "Luminosity", this.xPosition + 150, this.yPosition + 74,
@@ -141,7 +132,8 @@ public class GuiColorPicker extends GuiControl {
 
     // Draw preview
     drawRect(this.xPosition + 163, this.yPosition + 106, this.xPosition + 195,
-        this.yPosition + 138, 0xFF000000 | this.rgb);
+        this.yPosition + 138, PackedColor.opaque(this.model.getRgb()));
+    batch.end();
 
     // Draw text boxes
     this.txtRed.drawTextBox();
@@ -158,24 +150,33 @@ public class GuiColorPicker extends GuiControl {
     this.txtBlue.updateCursorCounter();
   }
 
-  protected void updateColor() {
-    this.rgb = (0xFFFFFF & Color.HSBtoRGB(this.hsb[H], this.hsb[S], this.hsb[B]));
-    this.txtRed.setText(String.valueOf((this.rgb >> 16) & 0xFF));
-    this.txtGreen.setText(String.valueOf((this.rgb >> 8) & 0xFF));
-    this.txtBlue.setText(String.valueOf(this.rgb & 0xFF));
+  /** Show the model's color in the text boxes, leaving alone the ones that already show it. */
+  protected void updateText() {
+    this.updateText(this.txtRed, ColorPickerModel.RED);
+    this.updateText(this.txtGreen, ColorPickerModel.GREEN);
+    this.updateText(this.txtBlue, ColorPickerModel.BLUE);
   }
 
-  protected void updateColorFromTextEntry() {
-    int currentRed = (this.rgb >> 16) & 0xFF;
-    int currentGreen = (this.rgb >> 8) & 0xFF;
-    int currentBlue = this.rgb & 0xFF;
-
-    currentRed = (int) clamp(this.tryParseInt(this.txtRed.getText(), currentRed), 0, 255);
-    currentGreen = (int) clamp(this.tryParseInt(this.txtGreen.getText(), currentGreen), 0, 255);
-    currentBlue = (int) clamp(this.tryParseInt(this.txtBlue.getText(), currentBlue), 0, 255);
+  private void updateText(GuiTextField textField, int component) {
+    String text = String.valueOf(this.model.getComponent(component));
+    if (!text.equals(textField.getText())) {
+      textField.setText(text);
+    }
+  }
 
-    this.hsb = Color.RGBtoHSB(currentRed, currentGreen, currentBlue, null);
-    this.updateColor();
+  /**
+   * Pass a keypress to a text box, and if it changed the text, parse it into the model's color.
+   * 
+   * @return True if the keypress changed the text
+   */
+  private boolean keyTyped(GuiTextField textField, int component, char keyChar, int keyCode) {
+    String text = textField.getText();
+    if (!textField.textboxKeyTyped(keyChar, keyCode) || text.equals(textField.getText())) {
+      return false;
+    }
+    this.model.setComponent(component,
+        this.tryParseInt(textField.getText(), this.model.getComponent(component)));
+    return true;
   }
 
   protected int tryParseInt(String text, int defaultValue) {
@@ -195,15 +196,15 @@ public class GuiColorPicker extends GuiControl {
   protected void mouseDragged(Minecraft minecraft, int mouseX, int mouseY) {
     super.mouseDragged(minecraft, mouseX, mouseY);
 
-    if (this.draggingHS) {
-      this.hsb[H] = clamp(mouseX - this.xPosition - 10, 0, 128) / 128F;
-      this.hsb[S] = (128F - clamp(mouseY - this.yPosition - 10, 0, 128)) / 128F;
-      this.updateColor();
+    if (this.draggingHS
+        && this.model.setHueSaturation(clamp(mouseX - this.xPosition - 10, 0, 128) / 128F,
+            (128F - clamp(mouseY - this.yPosition - 10, 0, 128)) / 128F)) {
+      this.updateText();
     }
 
-    if (this.draggingB) {
-      this.hsb[B] = (128F - clamp(mouseY - this.yPosition - 10, 0, 128)) / 128F;
-      this.updateColor();
+    if (this.draggingB
+        && this.model.setBrightness((128F - clamp(mouseY - this.yPosition - 10, 0, 128)) / 128F)) {
+      this.updateText();
     }
 
   }
@@ -223,10 +224,10 @@ public class GuiColorPicker extends GuiControl {
       if (this.btnCancel.mousePressed(minecraft, mouseX, mouseY))
         this.result = DialogResult.Cancel;
 
-      if (this.rectHSArea.contains(mouseX, mouseY))
+      if (contains(this.rectHSArea, mouseX, mouseY))
         this.draggingHS = true;
 
-      if (this.rectBArea.contains(mouseX, mouseY))
+      if (contains(this.rectBArea, mouseX, mouseY))
         this.draggingB = true;
 
       this.txtRed.mouseClicked(mouseX, mouseY, 0);
@@ -253,10 +254,11 @@ public class GuiColorPicker extends GuiControl {
   }
 
   public boolean textBoxKeyTyped(char keyChar, int keyCode) {
-    this.txtRed.textboxKeyTyped(keyChar, keyCode);
-    this.txtGreen.textboxKeyTyped(keyChar, keyCode);
-    this.txtBlue.textboxKeyTyped(keyChar, keyCode);
-    this.updateColorFromTextEntry();
+    if (this.keyTyped(this.txtRed, ColorPickerModel.RED, keyChar, keyCode)
+        | this.keyTyped(this.txtGreen, ColorPickerModel.GREEN, keyChar, keyCode)
+        | this.keyTyped(this.txtBlue, ColorPickerModel.BLUE, keyChar, keyCode)) {
+      this.updateText();
+    }
 
     if (keyCode == Keyboard.KEY_TAB) {
       if (this.txtRed.isFocused()) {
@@ -281,6 +283,11 @@ public class GuiColorPicker extends GuiControl {
     return true;
   }
 
+  /** Check whether a point is inside a rectangle given as x, y, width and height. */
+  private static boolean contains(int[] rect, int x, int y) {
+    return x >= rect[0] && y >= rect[1] && x < rect[0] + rect[2] && y < rect[1] + rect[3];
+  }
+
   public static float clamp(float value, float min, float max) {
     return Math.min(Math.max(value, min), max);
   }
@@ -15,16 +15,24 @@
 package net.easymfne.potioncolorizer.gui;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 
+import net.easymfne.potioncolorizer.BlendMode;
+import net.easymfne.potioncolorizer.BlendWeighting;
+import net.easymfne.potioncolorizer.InjectionMode;
 import net.easymfne.potioncolorizer.LiteModPotionColorizer;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Gui;
 import net.minecraft.client.gui.GuiButton;
+import net.minecraft.client.gui.GuiTextField;
 import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.potion.Potion;
 
+import org.lwjgl.input.Keyboard;
+
 import com.mumfrey.liteloader.client.gui.GuiCheckbox;
 import com.mumfrey.liteloader.modconfig.ConfigPanel;
 import com.mumfrey.liteloader.modconfig.ConfigPanelHost;
@@ -36,93 +44,183 @@ import com.mumfrey.liteloader.modconfig.ConfigPanelHost;
 public class GuiConfigPanel extends Gui implements ConfigPanel {
 
   /**
-   * Class representing a configuration line for a potion effect's color.
+   * Class representing a configuration line for a potion effect's color. Lines only hold their
+   * potion's state; the widgets to show it are borrowed from a pool while the line is in view.
    */
   private class ColorConfigLine {
 
-    /** Width of the checkbox, in points, for offsetting color button. */
-    private static final int BOX_WIDTH = 18;
-
-    private int x; // X position of top-left corner.
-    private int y; // Y position of top-left corner.
-    private String name; // Internal potion name.
-    private GuiCheckbox checkbox; // Enable/disable checkbox.
-    private GuiColorButton colorButton; // Color chooser button.
+    private int index; // Position among the lines shown.
+    private int potionId; // Potion effect id.
+    private String potionName; // Unlocalized name of the potion effect.
+    private String localizedName; // Localized name of the potion effect.
+    private int defaultColor; // Default color of the potion effect.
+    private boolean checked; // Whether the custom color is enabled.
+    private int color; // Custom color of the potion effect.
+    private LineWidgets widgets; // Widgets showing the line, or null while out of view.
 
     /**
-     * @param idStart Gui element id number to start with.
-     * @param potionName Internal potion effect name.
-     * @param xPos Top-left x-position of the line.
-     * @param yPos Top-left y-position of the line.
+     * @param potion The potion effect.
+     * @param position Position among the lines shown.
      */
-    public ColorConfigLine(int idStart, String potionName, int xPos, int yPos) {
-      x = xPos;
-      y = yPos;
-      name = potionName;
-      checkbox = new GuiCheckbox(idStart++, xPos, yPos, null);
-      checkbox.enabled = customColorBox.checked;
-      checkbox.checked = LiteModPotionColorizer.instance.customPotionColors.containsKey(potionName);
-      if (checkbox.checked) {
-        colorButton =
-            new GuiColorButton(mc, idStart++, xPos + BOX_WIDTH, yPos, 24, 12,
-                LiteModPotionColorizer.instance.customPotionColors.get(potionName), name);
-      } else {
-        colorButton =
-            new GuiColorButton(mc, idStart++, xPos + BOX_WIDTH, yPos, 24, 12,
-                LiteModPotionColorizer.defaultColors.get(potionName), name);
-      }
-      colorButton.enabled = checkbox.enabled && checkbox.checked;
+    public ColorConfigLine(Potion potion, int position) {
+      index = position;
+      potionId = potion.id;
+      potionName = potion.getName();
+      localizedName = I18n.format(potionName, new Object[0]);
+      defaultColor = LiteModPotionColorizer.defaultColors.get(potionId, potion.getLiquidColor());
+      reload();
+    }
+
+    /** Show the line with a set of widgets from the pool. */
+    public void bind(LineWidgets lineWidgets) {
+      widgets = lineWidgets;
+      widgets.checkbox.checked = checked;
+      widgets.colorButton.setColor(color);
+      widgets.colorButton.setName(potionName);
+      refresh();
+    }
+
+    /** Move the line's widgets to a top-left y-position. */
+    public void place(int yPos) {
+      widgets.checkbox.yPosition = yPos;
+      widgets.colorButton.yPosition = yPos;
+    }
+
+    /** Take the line out of view, returning its widgets to the pool. */
+    public LineWidgets release() {
+      sync();
+      LineWidgets lineWidgets = widgets;
+      widgets = null;
+      return lineWidgets;
     }
 
     /** Draw the configuration line to Gui screen (stage 1). */
     public void draw(Gui gui, int mouseX, int mouseY) {
-      checkbox.drawButton(mc, mouseX, mouseY);
-      colorButton.drawButton(mc, mouseX, mouseY);
+      widgets.checkbox.drawButton(mc, mouseX, mouseY);
+      widgets.colorButton.drawButton(mc, mouseX, mouseY);
     }
 
     /** Draw the configuration line to Gui screen (stage 2). */
     public void draw2(Gui gui, int mouseX, int mouseY) {
-      colorButton.drawPicker(mc, mouseX, mouseY);
+      widgets.colorButton.drawPicker(mc, mouseX, mouseY);
+      updatePicker();
     }
 
     /** Pass keypress along to the color hex field. */
     public void keyPressed(char keyChar, int keyCode) {
-      colorButton.keyTyped(keyChar, keyCode);
+      widgets.colorButton.keyTyped(keyChar, keyCode);
     }
 
-    /** Handle mouse clicks, toggling checked/enabled status if needed. */
-    public void mousePressed(int mouseX, int mouseY, int mouseButton) {
-      if (checkbox.mousePressed(mc, mouseX, mouseY)) {
-        activeButton = checkbox;
-        checkbox.checked = !checkbox.checked;
-        colorButton.enabled = checkbox.enabled && checkbox.checked;
-      } else if (colorButton.mousePressed(mc, mouseX, mouseY)) {
-        activeButton = colorButton;
+    /**
+     * Handle mouse clicks, toggling checked/enabled status if needed.
+     * 
+     * @return True if the click was captured by the line
+     */
+    public boolean mousePressed(int mouseX, int mouseY, int mouseButton) {
+      boolean captured = false;
+      if (widgets.checkbox.mousePressed(mc, mouseX, mouseY)) {
+        activeButton = widgets.checkbox;
+        widgets.checkbox.checked = !widgets.checkbox.checked;
+        widgets.colorButton.enabled = widgets.checkbox.enabled && widgets.checkbox.checked;
+        captured = true;
+      } else if (widgets.colorButton.mousePressed(mc, mouseX, mouseY)) {
+        activeButton = widgets.colorButton;
+        captured = true;
+      }
+      updatePicker();
+      return captured;
+    }
+
+    /** Keep track of the line's picker, so that only one picker is open at a time. */
+    private void updatePicker() {
+      if (widgets.colorButton.isPickerOpen()) {
+        if (pickerLine != this) {
+          if (pickerLine != null) {
+            pickerLine.widgets.colorButton.closePicker(true);
+          }
+          pickerLine = this;
+        }
+      } else if (pickerLine == this) {
+        pickerLine = null;
       }
     }
 
-    /** Refresh the checkbox and hex field status to reflect any changes. */
+    /**
+     * Refresh the checkbox and hex field status to reflect any changes. Lines keep their checked
+     * state while custom colors are disabled, so their colors are not lost.
+     */
     public void refresh() {
-      checkbox.enabled = customColorBox.checked;
-      checkbox.checked =
-          checkbox.enabled && LiteModPotionColorizer.instance.customPotionColors.containsKey(name);
-      colorButton.enabled = checkbox.enabled && checkbox.checked;
+      if (widgets != null) {
+        widgets.checkbox.enabled = customColorBox.checked;
+        widgets.colorButton.enabled = widgets.checkbox.enabled && widgets.checkbox.checked;
+      }
+    }
+
+    /** Reload the checkbox and color from the active color profile. */
+    public void reload() {
+      checked = LiteModPotionColorizer.instance.customPotionColors.contains(potionId);
+      color = LiteModPotionColorizer.instance.customPotionColors.get(potionId, defaultColor);
+      if (widgets != null) {
+        widgets.checkbox.checked = checked;
+        widgets.colorButton.setColor(color);
+        refresh();
+      }
+    }
+
+    /** Copy the state of the line's widgets, if it has any, back into the line. */
+    private void sync() {
+      if (widgets != null) {
+        checked = widgets.checkbox.checked;
+        color = widgets.colorButton.getColor();
+      }
     }
 
     /** Write the changes back to the mod instance. */
     public void save() {
-      if (checkbox.checked) {
-        LiteModPotionColorizer.instance.customPotionColors.put(name, colorButton.getColor());
+      sync();
+      if (checked) {
+        LiteModPotionColorizer.instance.customPotionColors.put(potionId, color);
       } else {
-        LiteModPotionColorizer.instance.customPotionColors.remove(name);
+        LiteModPotionColorizer.instance.customPotionColors.remove(potionId);
       }
     }
 
   }
 
+  /**
+   * The checkbox and color button of a configuration line, reused by whichever lines are in view.
+   */
+  private class LineWidgets {
+
+    /** Width of the checkbox, in points, for offsetting color button. */
+    private static final int BOX_WIDTH = 18;
+
+    private GuiCheckbox checkbox; // Enable/disable checkbox.
+    private GuiColorButton colorButton; // Color chooser button.
+
+    /**
+     * @param idStart Gui element id number to start with.
+     * @param xPos Top-left x-position of the widgets.
+     */
+    public LineWidgets(int idStart, int xPos) {
+      checkbox = new GuiCheckbox(idStart++, xPos, 0, null);
+      colorButton = new GuiColorButton(mc, idStart++, xPos + BOX_WIDTH, 0, 24, 12, 0, "");
+    }
+
+  }
+
   /** Line spacing, in points. */
   private final static int SPACING = 16;
 
+  /** Left edge of the color lines, in points. */
+  private final static int LINE_X = 20;
+
+  /** Width of the color lines' scroll bar, in points. */
+  private final static int SCROLL_BAR_WIDTH = 6;
+
+  /** Fewest color lines in view, on screens too short for the panel to fit. */
+  private final static int MIN_VISIBLE_LINES = 3;
+
   /** Handy references. */
   private LiteModPotionColorizer mod;
   private Minecraft mc;
@@ -130,12 +228,40 @@ public class GuiConfigPanel extends Gui implements ConfigPanel {
   /* Gui components. */
   private GuiCheckbox deglintBox;
   private GuiCheckbox recolorBox;
+  private GuiCheckbox directHooksBox;
   private GuiCheckbox customColorBox;
+  private GuiButton blendButton;
+  private GuiButton weightingButton;
+  private GuiButton profileButton;
+  private GuiButton newProfileButton;
+  private GuiTextField filterField;
+  private String filterLabel;
   private List<ColorConfigLine> colorLines;
 
+  /* Index of the color lines' names, and the lines matching the filter. */
+  private PotionNameIndex nameIndex;
+  private List<ColorConfigLine> shownLines;
+
+  /* Color lines currently shown, and widgets not in use by any line. */
+  private List<ColorConfigLine> boundLines;
+  private List<LineWidgets> widgetPool;
+  private int nextWidgetId;
+
+  /* Layout of the color lines, and the height of the panel area the host last reported. */
+  private int firstLineY;
+  private int panelHeight;
+
+  /* Index of the first color line in view, number of lines in view and scroll bar dragging. */
+  private int scrollLine;
+  private int visibleLines;
+  private boolean draggingScrollBar;
+
   /* Active component tracker/reference. */
   private GuiButton activeButton;
 
+  /* Line whose color picker is open, if any. */
+  private ColorConfigLine pickerLine;
+
   /** Construct a new configuration panel. */
   public GuiConfigPanel() {
     mc = Minecraft.getMinecraft();
@@ -146,19 +272,150 @@ public class GuiConfigPanel extends Gui implements ConfigPanel {
   public void drawPanel(ConfigPanelHost host, int mouseX, int mouseY, float partialTicks) {
     deglintBox.drawButton(mc, mouseX, mouseY);
     recolorBox.drawButton(mc, mouseX, mouseY);
+    directHooksBox.drawButton(mc, mouseX, mouseY);
     customColorBox.drawButton(mc, mouseX, mouseY);
-    for (ColorConfigLine line : colorLines) {
+    blendButton.drawButton(mc, mouseX, mouseY);
+    weightingButton.drawButton(mc, mouseX, mouseY);
+    profileButton.drawButton(mc, mouseX, mouseY);
+    newProfileButton.drawButton(mc, mouseX, mouseY);
+    filterField.drawTextBox();
+    drawString(mc.fontRendererObj, filterLabel, filterField.xPosition + filterField.width + 8,
+        filterField.yPosition + (filterField.height - 8) / 2, 0xFFFFFFFF);
+    updateVisibleLines(host.getHeight());
+    drawScrollBar(host.getWidth());
+    GuiBatch batch = GuiBatch.getInstance();
+    batch.begin();
+    for (ColorConfigLine line : boundLines) {
       line.draw(this, mouseX, mouseY);
     }
-    for (ColorConfigLine line : colorLines) {
-      line.draw2(this, mouseX, mouseY);
+    batch.end();
+    if (pickerLine != null) {
+      pickerLine.draw2(this, mouseX, mouseY);
     }
   }
 
-  /** Get the height of the panel in points. */
+  /**
+   * Lend widgets to the color lines in view and take them back from the lines that have scrolled
+   * out of it. The panel scrolls its color lines itself, a whole line at a time, below the
+   * settings, so which lines are in view follows from the panel's height and its own scroll
+   * position alone.
+   * 
+   * @param height Height of the panel area, as reported by the host
+   */
+  private void updateVisibleLines(int height) {
+    visibleLines = (getContentHeight(height) - firstLineY) / SPACING;
+    scrollLine = Math.max(0, Math.min(scrollLine, shownLines.size() - visibleLines));
+    int last = Math.min(shownLines.size(), scrollLine + visibleLines) - 1;
+    for (Iterator<ColorConfigLine> iterator = boundLines.iterator(); iterator.hasNext();) {
+      ColorConfigLine line = iterator.next();
+      if ((line.index < scrollLine || line.index > last) && line != pickerLine) {
+        widgetPool.add(line.release());
+        iterator.remove();
+      }
+    }
+    for (int index = scrollLine; index <= last; index++) {
+      ColorConfigLine line = shownLines.get(index);
+      if (line.widgets == null) {
+        if (widgetPool.isEmpty()) {
+          line.bind(new LineWidgets(nextWidgetId, LINE_X));
+          nextWidgetId += 2;
+        } else {
+          line.bind(widgetPool.remove(widgetPool.size() - 1));
+        }
+        boundLines.add(line);
+      }
+      line.place(firstLineY + SPACING * (index - scrollLine));
+    }
+  }
+
+  /**
+   * Draw the scroll bar of the color lines along the right edge of the panel, if they do not all
+   * fit in view.
+   * 
+   * @param width Width of the panel area, as reported by the host
+   */
+  private void drawScrollBar(int width) {
+    int hidden = shownLines.size() - visibleLines;
+    if (hidden <= 0) {
+      return;
+    }
+    int trackHeight = SPACING * visibleLines;
+    int thumbHeight = Math.max(SPACING, trackHeight * visibleLines / shownLines.size());
+    int thumbY = firstLineY + (trackHeight - thumbHeight) * scrollLine / hidden;
+    drawRect(width - SCROLL_BAR_WIDTH, firstLineY, width, firstLineY + trackHeight, 0x40FFFFFF);
+    drawRect(width - SCROLL_BAR_WIDTH, thumbY, width, thumbY + thumbHeight, 0xFFA0A0A0);
+  }
+
+  /**
+   * Check whether a point is on the scroll bar of the color lines.
+   * 
+   * @param width Width of the panel area, as reported by the host
+   * @param mouseX X-position in the panel
+   * @param mouseY Y-position in the panel
+   * @return True if the color lines do not all fit in view and the point is on their scroll bar
+   */
+  private boolean isOnScrollBar(int width, int mouseX, int mouseY) {
+    return shownLines.size() > visibleLines && mouseX >= width - SCROLL_BAR_WIDTH
+        && mouseX < width && mouseY >= firstLineY && mouseY < firstLineY + SPACING * visibleLines;
+  }
+
+  /**
+   * Scroll the color lines so that the point of the scroll bar at a y-position is in the middle of
+   * the view.
+   * 
+   * @param mouseY Y-position in the panel
+   */
+  private void scrollBarTo(int mouseY) {
+    int trackHeight = SPACING * visibleLines;
+    scrollLines((mouseY - firstLineY) * shownLines.size() / trackHeight - visibleLines / 2
+        - scrollLine);
+  }
+
+  /**
+   * Scroll the color lines, stopping at the first and last line.
+   * 
+   * @param lines Number of lines to scroll down, or up if negative
+   */
+  private void scrollLines(int lines) {
+    scrollLine = Math.max(0, Math.min(scrollLine + lines, shownLines.size() - visibleLines));
+  }
+
+  /**
+   * Show only the color lines with a potion name matching the filter, and lay them out again. Lines
+   * keep their state while they are filtered out.
+   */
+  private void applyFilter() {
+    BitSet matches = nameIndex.filter(filterField.getText());
+    for (ColorConfigLine line : boundLines) {
+      widgetPool.add(line.release());
+    }
+    boundLines.clear();
+    shownLines.clear();
+    for (int index = matches.nextSetBit(0); index >= 0; index = matches.nextSetBit(index + 1)) {
+      ColorConfigLine line = colorLines.get(index);
+      line.index = shownLines.size();
+      shownLines.add(line);
+    }
+    scrollLine = 0;
+  }
+
+  /**
+   * Get the height of the panel in points. The panel fills the host's panel area and scrolls its
+   * color lines itself, so the host only scrolls it on screens too short for a few lines.
+   */
   @Override
   public int getContentHeight() {
-    return SPACING * (3 + colorLines.size());
+    return getContentHeight(panelHeight);
+  }
+
+  /**
+   * Get the height of the panel in points for a panel area of some height.
+   * 
+   * @param height Height of the panel area
+   * @return The panel's height
+   */
+  private int getContentHeight(int height) {
+    return Math.max(height, firstLineY + SPACING * MIN_VISIBLE_LINES);
   }
 
   /** Get the title to display for the panel. */
@@ -167,48 +424,145 @@ public class GuiConfigPanel extends Gui implements ConfigPanel {
     return I18n.format("config.panel.title", new Object[] {LiteModPotionColorizer.MOD_NAME});
   }
 
-  /** On keypresses, pass the keypress to the text fields. */
+  /**
+   * On keypresses, pass the keypress to the open color picker's text field or the filter, or
+   * scroll the color lines with the arrow and page keys.
+   */
   @Override
   public void keyPressed(ConfigPanelHost host, char keyChar, int keyCode) {
-    for (ColorConfigLine line : colorLines) {
-      line.keyPressed(keyChar, keyCode);
+    if (pickerLine != null) {
+      pickerLine.keyPressed(keyChar, keyCode);
+    } else {
+      String filter = filterField.getText();
+      if (filterField.textboxKeyTyped(keyChar, keyCode)) {
+        if (!filter.equals(filterField.getText())) {
+          applyFilter();
+        }
+      } else if (keyCode == Keyboard.KEY_UP) {
+        scrollLines(-1);
+      } else if (keyCode == Keyboard.KEY_DOWN) {
+        scrollLines(1);
+      } else if (keyCode == Keyboard.KEY_PRIOR) {
+        scrollLines(-visibleLines);
+      } else if (keyCode == Keyboard.KEY_NEXT) {
+        scrollLines(visibleLines);
+      }
     }
   }
 
-  /** On mouse movement, nothing needs to be done. */
+  /** On mouse movement, drag the scroll bar of the color lines if it is held. */
   @Override
-  public void mouseMoved(ConfigPanelHost host, int mouseX, int mouseY) {}
+  public void mouseMoved(ConfigPanelHost host, int mouseX, int mouseY) {
+    if (draggingScrollBar) {
+      scrollBarTo(mouseY);
+    }
+  }
 
   /** On click, activate button under cursor if one exists. */
   @Override
   public void mousePressed(ConfigPanelHost host, int mouseX, int mouseY, int mouseButton) {
+    filterField.mouseClicked(mouseX, mouseY, mouseButton);
     if (deglintBox.mousePressed(mc, mouseX, mouseY)) {
       activeButton = deglintBox;
       LiteModPotionColorizer.instance.deglintPotions =
           !LiteModPotionColorizer.instance.deglintPotions;
       deglintBox.checked = LiteModPotionColorizer.instance.deglintPotions;
+      LiteModPotionColorizer.instance.updateHooks();
     } else if (recolorBox.mousePressed(mc, mouseX, mouseY)) {
       activeButton = recolorBox;
       LiteModPotionColorizer.instance.recolorPotions =
           !LiteModPotionColorizer.instance.recolorPotions;
       recolorBox.checked = LiteModPotionColorizer.instance.recolorPotions;
+      LiteModPotionColorizer.instance.updateHooks();
+    } else if (directHooksBox.mousePressed(mc, mouseX, mouseY)) {
+      activeButton = directHooksBox;
+      directHooksBox.checked = !directHooksBox.checked;
+      LiteModPotionColorizer.instance.injectionMode =
+          (directHooksBox.checked ? InjectionMode.DIRECT : InjectionMode.EVENT).getName();
     } else if (customColorBox.mousePressed(mc, mouseX, mouseY)) {
       activeButton = customColorBox;
       LiteModPotionColorizer.instance.customColors = !LiteModPotionColorizer.instance.customColors;
       customColorBox.checked = LiteModPotionColorizer.instance.customColors;
-      for (ColorConfigLine line : colorLines) {
+      LiteModPotionColorizer.instance.updateHooks();
+      for (ColorConfigLine line : boundLines) {
         line.refresh();
       }
-    } else {
+    } else if (blendButton.mousePressed(mc, mouseX, mouseY)) {
+      activeButton = blendButton;
+      LiteModPotionColorizer.instance.setBlendMode(BlendMode.fromName(
+          LiteModPotionColorizer.instance.blendMode).next());
+      blendButton.displayString = getBlendText();
+    } else if (weightingButton.mousePressed(mc, mouseX, mouseY)) {
+      activeButton = weightingButton;
+      LiteModPotionColorizer.instance.setBlendWeighting(BlendWeighting.fromName(
+          LiteModPotionColorizer.instance.blendWeighting).next());
+      weightingButton.displayString = getWeightingText();
+    } else if (profileButton.mousePressed(mc, mouseX, mouseY)) {
+      activeButton = profileButton;
+      List<String> names = LiteModPotionColorizer.instance.getProfileNames();
+      int next = names.indexOf(LiteModPotionColorizer.instance.getActiveProfile()) + 1;
+      switchProfile(names.get(next % names.size()));
+    } else if (newProfileButton.mousePressed(mc, mouseX, mouseY)) {
+      activeButton = newProfileButton;
       for (ColorConfigLine line : colorLines) {
-        line.mousePressed(mouseX, mouseY, mouseButton);
+        line.save();
+      }
+      switchProfile(LiteModPotionColorizer.instance.createProfile());
+    } else if (pickerLine == null && isOnScrollBar(host.getWidth(), mouseX, mouseY)) {
+      draggingScrollBar = true;
+      scrollBarTo(mouseY);
+    } else {
+      ColorConfigLine previous = pickerLine;
+      if (previous == null || !previous.mousePressed(mouseX, mouseY, mouseButton)) {
+        for (ColorConfigLine line : boundLines) {
+          if (line != previous) {
+            line.mousePressed(mouseX, mouseY, mouseButton);
+          }
+        }
       }
     }
   }
 
-  /** On release of click, deactivate the selected button (if any). */
+  /**
+   * Keep the color lines' changes in the active profile, then switch to another profile and show
+   * its colors.
+   * 
+   * @param name Name of the profile
+   */
+  private void switchProfile(String name) {
+    for (ColorConfigLine line : colorLines) {
+      line.save();
+    }
+    LiteModPotionColorizer.instance.selectProfile(name);
+    profileButton.displayString = getProfileText();
+    for (ColorConfigLine line : colorLines) {
+      line.reload();
+    }
+  }
+
+  /** Get the text of the blend mode selector for the current blend mode. */
+  private String getBlendText() {
+    return I18n.format("config.blend.text", new Object[] {I18n.format("config.blend."
+        + BlendMode.fromName(LiteModPotionColorizer.instance.blendMode).getName(), new Object[0])});
+  }
+
+  /** Get the text of the weighting selector for the current weighting. */
+  private String getWeightingText() {
+    return I18n.format("config.weighting.text", new Object[] {I18n.format("config.weighting."
+        + BlendWeighting.fromName(LiteModPotionColorizer.instance.blendWeighting).getName(),
+        new Object[0])});
+  }
+
+  /** Get the text of the profile selector for the active profile. */
+  private String getProfileText() {
+    return I18n.format("config.profile.text",
+        new Object[] {LiteModPotionColorizer.instance.getActiveProfile()});
+  }
+
+  /** On release of click, deactivate the selected button (if any) and let go of the scroll bar. */
   @Override
   public void mouseReleased(ConfigPanelHost host, int mouseX, int mouseY, int mouseButton) {
+    draggingScrollBar = false;
     if (activeButton != null) {
       activeButton.mouseReleased(mouseX, mouseY);
       if (activeButton instanceof GuiControl) {
@@ -227,19 +581,21 @@ public class GuiConfigPanel extends Gui implements ConfigPanel {
     mod.writeConfig();
   }
 
-  /** On resizing of panel, adjust scaling. */
+  /** On resizing of panel, adjust scaling and keep the height of the panel area. */
   @Override
   public void onPanelResize(ConfigPanelHost host) {
-    GuiControl.setScreenSizeAndScale(host.getWidth(), host.getHeight(), new ScaledResolution(
-        this.mc, this.mc.displayWidth, this.mc.displayHeight).getScaleFactor());
+    ScaledResolution resolution =
+        new ScaledResolution(this.mc, this.mc.displayWidth, this.mc.displayHeight);
+    GuiControl.setScreenSizeAndScale(host.getWidth(), host.getHeight(),
+        resolution.getScaleFactor());
+    panelHeight = host.getHeight();
   }
 
   /** On opening of panel, instantiate the user interface components. */
   @Override
   public void onPanelShown(ConfigPanelHost host) {
     mod = (LiteModPotionColorizer) host.getMod();
-    GuiControl.setScreenSizeAndScale(host.getWidth(), host.getHeight(), new ScaledResolution(
-        this.mc, this.mc.displayWidth, this.mc.displayHeight).getScaleFactor());
+    onPanelResize(host);
     int id = 0;
     int line = 0;
     deglintBox =
@@ -250,21 +606,51 @@ public class GuiConfigPanel extends Gui implements ConfigPanel {
         new GuiCheckbox(id++, 10, SPACING * line++, I18n.format("config.recolor.text",
             new Object[0]));
     recolorBox.checked = LiteModPotionColorizer.instance.recolorPotions;
+    directHooksBox =
+        new GuiCheckbox(id++, 10, SPACING * line++, I18n.format("config.direct.text",
+            new Object[0]));
+    directHooksBox.checked =
+        InjectionMode.fromName(LiteModPotionColorizer.instance.injectionMode)
+            == InjectionMode.DIRECT;
     customColorBox =
         new GuiCheckbox(id++, 10, SPACING * line++,
             I18n.format("config.custom.text", new Object[0]));
     customColorBox.checked = LiteModPotionColorizer.instance.customColors;
+    blendButton = new GuiButton(id++, 10, SPACING * line, 150, 20, getBlendText());
+    weightingButton = new GuiButton(id++, 164, SPACING * line, 150, 20, getWeightingText());
+    line += 2;
+    profileButton = new GuiButton(id++, 10, SPACING * line, 150, 20, getProfileText());
+    newProfileButton =
+        new GuiButton(id++, 164, SPACING * line, 20, 20, I18n.format("config.profile.new",
+            new Object[0]));
+    line += 2;
+    filterField = new GuiTextField(id++, mc.fontRendererObj, 10, SPACING * line, 150, 14);
+    filterLabel = I18n.format("config.filter.text", new Object[0]);
+    line += 2;
+    firstLineY = SPACING * line;
     colorLines = new ArrayList<ColorConfigLine>();
+    shownLines = new ArrayList<ColorConfigLine>();
+    nameIndex = new PotionNameIndex();
     for (Potion potion : Potion.potionTypes) {
       if (potion != null) {
-        colorLines.add(new ColorConfigLine(id, potion.getName(), 20, SPACING * line++));
-        id += 2;
+        ColorConfigLine colorLine = new ColorConfigLine(potion, colorLines.size());
+        colorLines.add(colorLine);
+        shownLines.add(colorLine);
+        nameIndex.add(colorLine.localizedName, colorLine.potionName);
       }
     }
+    boundLines = new ArrayList<ColorConfigLine>();
+    widgetPool = new ArrayList<LineWidgets>();
+    nextWidgetId = id;
+    pickerLine = null;
+    scrollLine = 0;
+    draggingScrollBar = false;
   }
 
-  /** On each tick, nothing needs to be done. */
+  /** On each tick, blink the filter's cursor. */
   @Override
-  public void onTick(ConfigPanelHost host) {}
+  public void onTick(ConfigPanelHost host) {
+    filterField.updateCursorCounter();
+  }
 
 }
@@ -14,19 +14,11 @@
  */
 package net.easymfne.potioncolorizer.gui;
 
-import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_COLOR_LOGIC_OP;
-import static org.lwjgl.opengl.GL11.GL_LIGHTING;
-import static org.lwjgl.opengl.GL11.GL_LINES;
-import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_OR_REVERSE;
-import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.glBlendFunc;
-import static org.lwjgl.opengl.GL11.glColor4f;
 import static org.lwjgl.opengl.GL11.glDisable;
 import static org.lwjgl.opengl.GL11.glEnable;
-import static org.lwjgl.opengl.GL11.glLineWidth;
 import static org.lwjgl.opengl.GL11.glLogicOp;
 import static org.lwjgl.opengl.GL11.glPopMatrix;
 import static org.lwjgl.opengl.GL11.glPushMatrix;
@@ -35,8 +27,6 @@ import static org.lwjgl.opengl.GL11.glTranslatef;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.gui.GuiButton;
-import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.client.renderer.WorldRenderer;
 
 /**
  * GuiControlEx is the base class for additional controls. It includes some advanced drawing methods
@@ -92,6 +82,9 @@ public class GuiControl extends GuiButton {
   protected static int lastScreenWidth;
   protected static int lastScreenHeight;
 
+  /** Widths and cut off points of the strings drawn by the controls. */
+  protected static final TextLayoutCache textLayout = new TextLayoutCache();
+
   /**
    * Override from GuiButton, handle this call and forward it to DrawControl for neatness.
    * 
@@ -160,6 +153,20 @@ public class GuiControl extends GuiButton {
     return result;
   }
 
+  /**
+   * Draws a solid color rectangle through the {@link GuiBatch}, in place of Gui.drawRect.
+   * 
+   * @param left Left edge X coordinate
+   * @param top Top edge Y coordinate
+   * @param right Right edge X coordinate
+   * @param bottom Bottom edge Y coordinate
+   * @param color Color
+   */
+  public static void drawRect(int left, int top, int right, int bottom, int color) {
+    GuiBatch.getInstance().rect(Math.min(left, right), Math.min(top, bottom),
+        Math.max(left, right), Math.max(top, bottom), color);
+  }
+
   /**
    * Draws a line between two points with the specified width and color.
    * 
@@ -184,28 +191,8 @@ public class GuiControl extends GuiButton {
    * @param width Line width
    * @param color Line color
    */
-  @SuppressWarnings("cast")
   public static void drawNativeLine(float x1, float y1, float x2, float y2, float width, int color) {
-    float f = (float) (color >> 24 & 0xff) / 255F;
-    float f1 = (float) (color >> 16 & 0xff) / 255F;
-    float f2 = (float) (color >> 8 & 0xff) / 255F;
-    float f3 = (float) (color & 0xff) / 255F;
-
-    glEnable(GL_BLEND);
-    glDisable(GL_TEXTURE_2D);
-    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-    glColor4f(f1, f2, f3, f);
-    glLineWidth(width);
-
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawing(GL_LINES);
-    renderer.addVertex(x1, y1, 0);
-    renderer.addVertex(x2, y2, 0);
-    tessellator.draw();
-
-    glEnable(GL_TEXTURE_2D);
-    glDisable(GL_BLEND);
+    GuiBatch.getInstance().line(x1, y1, x2, y2, width, color, false);
   }
 
   /**
@@ -236,58 +223,51 @@ public class GuiControl extends GuiButton {
    * @param arrowHead True to draw an arrow, otherwise draws a line
    * @param arrowHeadSize Size of the arrow head
    */
-  @SuppressWarnings("cast")
   public static void drawArrow(int x1, int y1, int x2, int y2, int z, int width, int color,
       boolean arrowHead, int arrowHeadSize) {
     // Calculate the line length and angle defined by the specified points
     int length = (int) Math.sqrt(Math.pow((x2 - x1), 2) + Math.pow((y2 - y1), 2));
-    float angle = (float) Math.toDegrees(Math.atan2(y2 - y1, x2 - x1));
+    double angle = Math.atan2(y2 - y1, x2 - x1);
+    float cos = (float) Math.cos(angle);
+    float sin = (float) Math.sin(angle);
 
-    // Local rotation
-    glPushMatrix();
-    glTranslatef(x1, y1, 0.0f);
-    glRotatef(angle, 0.0f, 0.0f, 1.0f);
-
-    // Calc coordinates for the line and arrow points
-    x1 = 0;
-    x2 = length - (arrowHead ? arrowHeadSize : 0);
-    y1 = (int) (width * -0.5);
-    y2 = y1 + width;
-
-    // Calc color components
-    float f = (float) (color >> 24 & 0xff) / 255F;
-    float f1 = (float) (color >> 16 & 0xff) / 255F;
-    float f2 = (float) (color >> 8 & 0xff) / 255F;
-    float f3 = (float) (color & 0xff) / 255F;
-
-    glEnable(GL_BLEND);
-    glDisable(GL_TEXTURE_2D);
-    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-    glColor4f(f1, f2, f3, f);
+    // Calc coordinates for the line and arrow points, relative to the origin
+    int end = length - (arrowHead ? arrowHeadSize : 0);
+    int top = (int) (width * -0.5);
+    int bottom = top + width;
 
     // Draw the line
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertex(x1, y2, z);
-    renderer.addVertex(x2, y2, z);
-    renderer.addVertex(x2, y1, z);
-    renderer.addVertex(x1, y1, z);
-    tessellator.draw();
+    float[] corners = {0, bottom, end, bottom, end, top, 0, top};
+    drawRotatedQuad(x1, y1, cos, sin, corners, z, color);
 
     // If an arrow then draw the arrow head
     if (arrowHead && arrowHeadSize > 0) {
-    	renderer.startDrawing(4);
-    	renderer.addVertex(x2, 0 - arrowHeadSize / 2, z);
-    	renderer.addVertex(x2, arrowHeadSize / 2, z);
-    	renderer.addVertex(length, 0, z);
-      tessellator.draw();
+      float[] head = {end, 0 - arrowHeadSize / 2, end, arrowHeadSize / 2, length, 0, length, 0};
+      drawRotatedQuad(x1, y1, cos, sin, head, z, color);
     }
+  }
 
-    glEnable(GL_TEXTURE_2D);
-    glDisable(GL_BLEND);
-
-    glPopMatrix();
+  /**
+   * Draws a flat colored quad whose corners are given relative to an origin and rotated about it.
+   * 
+   * @param originX Origin x coordinate
+   * @param originY Origin y coordinate
+   * @param cos Cosine of the rotation
+   * @param sin Sine of the rotation
+   * @param corners X and y coordinates of the four corners, which are overwritten
+   * @param z Z coordinate
+   * @param color Color
+   */
+  private static void drawRotatedQuad(int originX, int originY, float cos, float sin,
+      float[] corners, int z, int color) {
+    for (int i = 0; i < corners.length; i += 2) {
+      float x = corners[i];
+      float y = corners[i + 1];
+      corners[i] = originX + x * cos - y * sin;
+      corners[i + 1] = originY + x * sin + y * cos;
+    }
+    GuiBatch.getInstance().quad(corners[0], corners[1], corners[2], corners[3], corners[4],
+        corners[5], corners[6], corners[7], z, color);
   }
 
   /**
@@ -314,18 +294,10 @@ public class GuiControl extends GuiButton {
    */
   @SuppressWarnings("cast")
   public void drawTexturedModalRectRot(int x, int y, int x2, int y2, int u, int v, int u2, int v2) {
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertexWithUV(x2, y2, this.zLevel, (float) (u) * texMapScale, (float) (v2)
-        * texMapScale);
-    renderer.addVertexWithUV(x2, y, this.zLevel, (float) (u2) * texMapScale, (float) (v2)
-        * texMapScale);
-    renderer.addVertexWithUV(x, y, this.zLevel, (float) (u2) * texMapScale, (float) (v)
-        * texMapScale);
-    renderer.addVertexWithUV(x, y2, this.zLevel, (float) (u) * texMapScale, (float) (v)
-        * texMapScale);
-    tessellator.draw();
+    GuiBatch.getInstance().texturedQuad(x2, y2, (float) (u) * texMapScale,
+        (float) (v2) * texMapScale, x2, y, (float) (u2) * texMapScale, (float) (v2) * texMapScale,
+        x, y, (float) (u2) * texMapScale, (float) (v) * texMapScale, x, y2,
+        (float) (u) * texMapScale, (float) (v) * texMapScale, this.zLevel);
   }
 
   /**
@@ -340,18 +312,11 @@ public class GuiControl extends GuiButton {
    */
   @SuppressWarnings("cast")
   public void drawTexturedModalRectRot(int x, int y, int u, int v, int width, int height) {
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertexWithUV(x + height, y + width, this.zLevel, (float) (u) * texMapScale,
-        (float) (v + height) * texMapScale);
-    renderer.addVertexWithUV(x + height, y, this.zLevel, (float) (u + width) * texMapScale,
-        (float) (v + height) * texMapScale);
-    renderer.addVertexWithUV(x, y, this.zLevel, (float) (u + width) * texMapScale, (float) (v)
-        * texMapScale);
-    renderer.addVertexWithUV(x, y + width, this.zLevel, (float) (u) * texMapScale, (float) (v)
-        * texMapScale);
-    tessellator.draw();
+    GuiBatch.getInstance().texturedQuad(x + height, y + width, (float) (u) * texMapScale,
+        (float) (v + height) * texMapScale, x + height, y, (float) (u + width) * texMapScale,
+        (float) (v + height) * texMapScale, x, y, (float) (u + width) * texMapScale,
+        (float) (v) * texMapScale, x, y + width, (float) (u) * texMapScale,
+        (float) (v) * texMapScale, this.zLevel);
   }
 
   /**
@@ -465,55 +430,17 @@ public class GuiControl extends GuiButton {
    */
   public static void drawStringWithEllipsis(FontRenderer fontrenderer, String s, int x, int y,
       int width, int color) {
-    if (fontrenderer.getStringWidth(s) <= width) {
-      fontrenderer.drawStringWithShadow(s, x, y, color);
-    } else if (width < 8) {
-      fontrenderer.drawStringWithShadow("..", x, y, color);
-    } else {
-      String trimmedText = s;
-
-      while (fontrenderer.getStringWidth(trimmedText) > width - 8 && trimmedText.length() > 0)
-        trimmedText = trimmedText.substring(0, trimmedText.length() - 1);
-
-      fontrenderer.drawStringWithShadow(trimmedText + "...", x, y, color);
-    }
+    fontrenderer.drawStringWithShadow(textLayout.fit(fontrenderer, s, width), x, y, color);
   }
 
   /**
    * @param boundingBox
    */
-  @SuppressWarnings("cast")
   protected void drawCrossHair(int x, int y, int size, int width, int color) {
-    float alpha = (float) (color >> 24 & 0xff) / 255F;
-    float red = (float) (color >> 16 & 0xff) / 255F;
-    float green = (float) (color >> 8 & 0xff) / 255F;
-    float blue = (float) (color & 0xff) / 255F;
-
-    glLineWidth(GuiControl.guiScaleFactor * width);
-    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-    glEnable(GL_BLEND);
-    glDisable(GL_TEXTURE_2D);
-    glDisable(GL_LIGHTING);
-    glColor4f(red, green, blue, alpha);
-    glEnable(GL_COLOR_LOGIC_OP);
-    glLogicOp(GL_OR_REVERSE);
-
-    // Draw the frame
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    
-    renderer.startDrawing(GL_LINES);
-    renderer.addVertex(x - size, y, 0);
-    renderer.addVertex(x + size, y, 0);
-    tessellator.draw();
-
-    renderer.startDrawing(GL_LINES);
-    renderer.addVertex(x, y - size, 0);
-    renderer.addVertex(x, y + size, 0);
-    tessellator.draw();
-
-    glDisable(GL_COLOR_LOGIC_OP);
-    glEnable(GL_TEXTURE_2D);
+    GuiBatch batch = GuiBatch.getInstance();
+    float lineWidth = GuiControl.guiScaleFactor * width;
+    batch.line(x - size, y, x + size, y, lineWidth, color, true);
+    batch.line(x, y - size, x, y + size, lineWidth, color, true);
   }
 
   protected void drawRotText(FontRenderer fontRenderer, String text, int xPosition, int yPosition,
@@ -523,7 +450,7 @@ public class GuiControl extends GuiButton {
       glLogicOp(GL_OR_REVERSE);
     }
 
-    int textWidth = fontRenderer.getStringWidth(text) / 2;
+    int textWidth = textLayout.getWidth(fontRenderer, text) / 2;
 
     glPushMatrix();
     glTranslatef(xPosition, yPosition, 0);
@@ -554,11 +481,12 @@ public class GuiControl extends GuiButton {
    */
   protected void drawTooltip(FontRenderer fontRenderer, String tooltipText, int mouseX, int mouseY,
       int screenWidth, int screenHeight, int color, int backgroundColor) {
-    int textSize = fontRenderer.getStringWidth(tooltipText);
+    int textSize = textLayout.getWidth(fontRenderer, tooltipText);
     mouseX = Math.max(0, Math.min(screenWidth - textSize - 6, mouseX - 6));
     mouseY = Math.max(0, Math.min(screenHeight - 16, mouseY - 18));
 
     drawRect(mouseX, mouseY, mouseX + textSize + 6, mouseY + 16, backgroundColor);
+    GuiBatch.getInstance().flush();
     this.drawString(fontRenderer, tooltipText, mouseX + 3, mouseY + 4, color);
   }
 
@@ -576,18 +504,10 @@ public class GuiControl extends GuiButton {
    */
   @SuppressWarnings("cast")
   public void drawTexturedModalRect(int x, int y, int x2, int y2, int u, int v, int u2, int v2) {
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertexWithUV(x, y2, this.zLevel, (float) (u) * texMapScale, (float) (v2)
-        * texMapScale);
-    renderer.addVertexWithUV(x2, y2, this.zLevel, (float) (u2) * texMapScale, (float) (v2)
-        * texMapScale);
-    renderer.addVertexWithUV(x2, y, this.zLevel, (float) (u2) * texMapScale, (float) (v)
-        * texMapScale);
-    renderer.addVertexWithUV(x, y, this.zLevel, (float) (u) * texMapScale, (float) (v)
-        * texMapScale);
-    tessellator.draw();
+    GuiBatch.getInstance().texturedQuad(x, y2, (float) (u) * texMapScale,
+        (float) (v2) * texMapScale, x2, y2, (float) (u2) * texMapScale, (float) (v2) * texMapScale,
+        x2, y, (float) (u2) * texMapScale, (float) (v) * texMapScale, x, y,
+        (float) (u) * texMapScale, (float) (v) * texMapScale, this.zLevel);
   }
 
   /**
@@ -604,14 +524,8 @@ public class GuiControl extends GuiButton {
    */
   public void drawTexturedModalRectF(int x, int y, int x2, int y2, float u, float v, float u2,
       float v2) {
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertexWithUV(x, y2, this.zLevel, u, v2);
-    renderer.addVertexWithUV(x2, y2, this.zLevel, u2, v2);
-    renderer.addVertexWithUV(x2, y, this.zLevel, u2, v);
-    renderer.addVertexWithUV(x, y, this.zLevel, u, v);
-    tessellator.draw();
+    GuiBatch.getInstance().texturedQuad(x, y2, u, v2, x2, y2, u2, v2, x2, y, u2, v, x, y, u, v,
+        this.zLevel);
   }
 
   /**
@@ -628,23 +542,17 @@ public class GuiControl extends GuiButton {
   @SuppressWarnings("cast")
   public void drawTexturedModalRect(int x, int y, int u, int v, int width, int height,
       float texMapScale) {
-    Tessellator tessellator = Tessellator.getInstance();
-    WorldRenderer renderer = tessellator.getWorldRenderer();
-    renderer.startDrawingQuads();
-    renderer.addVertexWithUV(x + 0, y + height, this.zLevel, (float) (u + 0) * texMapScale,
-        (float) (v + height) * texMapScale);
-    renderer.addVertexWithUV(x + width, y + height, this.zLevel, (float) (u + width)
-        * texMapScale, (float) (v + height) * texMapScale);
-    renderer.addVertexWithUV(x + width, y + 0, this.zLevel, (float) (u + width) * texMapScale,
-        (float) (v + 0) * texMapScale);
-    renderer.addVertexWithUV(x + 0, y + 0, this.zLevel, (float) (u + 0) * texMapScale,
-        (float) (v + 0) * texMapScale);
-    tessellator.draw();
+    GuiBatch.getInstance().texturedQuad(x + 0, y + height, (float) (u + 0) * texMapScale,
+        (float) (v + height) * texMapScale, x + width, y + height,
+        (float) (u + width) * texMapScale, (float) (v + height) * texMapScale, x + width, y + 0,
+        (float) (u + width) * texMapScale, (float) (v + 0) * texMapScale, x + 0, y + 0,
+        (float) (u + 0) * texMapScale, (float) (v + 0) * texMapScale, this.zLevel);
   }
 
   public static void setScreenSizeAndScale(int width, int height, int scaleFactor) {
     GuiControl.lastScreenWidth = width;
     GuiControl.lastScreenHeight = height;
     GuiControl.guiScaleFactor = scaleFactor;
+    textLayout.clear();
   }
 }
@@ -0,0 +1,124 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of the names of the potion lines in the configuration panel, for filtering them as the user
+ * types. Every substring of up to {@link #GRAM} characters is indexed, so short queries are
+ * answered from the index alone and longer ones only need to check the entries that have all of
+ * their n-grams. Queries that extend the previous one only narrow down its matches.
+ */
+public class PotionNameIndex {
+
+  /** Length of the longest indexed substrings. */
+  private static final int GRAM = 3;
+
+  /** Entries having each indexed substring. */
+  private final Map<String, BitSet> grams = new HashMap<String, BitSet>();
+
+  /** Lower case names of each entry. */
+  private final List<String[]> names = new ArrayList<String[]>();
+
+  /** The previous query and its matches. */
+  private String lastQuery;
+  private BitSet lastMatches;
+
+  /**
+   * Add an entry to the index.
+   * 
+   * @param entryNames The names the entry can be found by
+   * @return Number of the entry, counting from zero in the order they were added
+   */
+  public int add(String... entryNames) {
+    int entry = names.size();
+    String[] lowerNames = new String[entryNames.length];
+    for (int i = 0; i < entryNames.length; i++) {
+      lowerNames[i] = entryNames[i].toLowerCase(Locale.ROOT);
+      for (int start = 0; start < lowerNames[i].length(); start++) {
+        int end = Math.min(start + GRAM, lowerNames[i].length());
+        for (int length = 1; start + length <= end; length++) {
+          String gram = lowerNames[i].substring(start, start + length);
+          BitSet entries = grams.get(gram);
+          if (entries == null) {
+            entries = new BitSet();
+            grams.put(gram, entries);
+          }
+          entries.set(entry);
+        }
+      }
+    }
+    names.add(lowerNames);
+    lastQuery = null;
+    return entry;
+  }
+
+  /**
+   * Find the entries with a name containing the query, ignoring case.
+   * 
+   * @param query The text to look for
+   * @return Numbers of the matching entries; every entry if the query is empty
+   */
+  public BitSet filter(String query) {
+    query = query.toLowerCase(Locale.ROOT);
+    BitSet matches;
+    if (lastQuery != null && query.startsWith(lastQuery)) {
+      if (query.length() == lastQuery.length()) {
+        return (BitSet) lastMatches.clone();
+      }
+      matches = (BitSet) lastMatches.clone();
+    } else {
+      matches = new BitSet();
+      matches.set(0, names.size());
+    }
+    int length = Math.min(GRAM, query.length());
+    for (int start = 0; length > 0 && start + length <= query.length() && !matches.isEmpty();
+        start++) {
+      BitSet entries = grams.get(query.substring(start, start + length));
+      if (entries == null) {
+        matches.clear();
+      } else {
+        matches.and(entries);
+      }
+    }
+    if (query.length() > GRAM) {
+      for (int entry = matches.nextSetBit(0); entry >= 0; entry = matches.nextSetBit(entry + 1)) {
+        if (!contains(names.get(entry), query)) {
+          matches.clear(entry);
+        }
+      }
+    }
+    lastQuery = query;
+    lastMatches = matches;
+    return (BitSet) matches.clone();
+  }
+
+  /** Check whether any of the names contains the query. */
+  private static boolean contains(String[] entryNames, String query) {
+    for (String name : entryNames) {
+      if (name.contains(query)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.client.gui.FontRenderer;
+
+/**
+ * Cache of the widths of strings drawn by the controls, and of where they are cut off to fit a
+ * width. The width of every prefix of a string is measured once, so that the cut off point can be
+ * found by a binary search instead of by measuring the string again for every character dropped.
+ * The cache is cleared when the font renderer or the GUI scale changes.
+ */
+public class TextLayoutCache {
+
+  /** Layout of one string. */
+  private static class Layout {
+
+    /** Width of each prefix of the string, by its length. */
+    private final int[] prefixWidths;
+
+    /** The width the string was last fitted to, and the result. */
+    private int fittedWidth = -1;
+    private String fitted;
+
+    private Layout(int[] prefixWidths) {
+      this.prefixWidths = prefixWidths;
+    }
+
+  }
+
+  /** Number of strings to keep the layouts of. */
+  private static final int CAPACITY = 256;
+
+  /** Text appended to strings that have been cut off, and its width. */
+  private static final String ELLIPSIS = "...";
+  private static final int ELLIPSIS_WIDTH = 8;
+
+  /** Layouts of recently drawn strings, least recently used first. */
+  private final Map<String, Layout> layouts = new LinkedHashMap<String, Layout>(16, 0.75F, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Layout> eldest) {
+      return size() > CAPACITY;
+    }
+  };
+
+  /** The font renderer the layouts were measured with. */
+  private FontRenderer fontRenderer;
+
+  /** Forget every layout. */
+  public void clear() {
+    layouts.clear();
+    fontRenderer = null;
+  }
+
+  /**
+   * Get the width of a string.
+   * 
+   * @param renderer The font renderer to draw the string with
+   * @param text The string
+   * @return Its width, as {@link FontRenderer#getStringWidth} would give it
+   */
+  public int getWidth(FontRenderer renderer, String text) {
+    int[] prefixWidths = getLayout(renderer, text).prefixWidths;
+    return prefixWidths[prefixWidths.length - 1];
+  }
+
+  /**
+   * Fit a string into a width, cutting it off with an ellipsis if it is too long.
+   * 
+   * @param renderer The font renderer to draw the string with
+   * @param text The string
+   * @param width The width to fit it into
+   * @return The string, cut off if needed
+   */
+  public String fit(FontRenderer renderer, String text, int width) {
+    Layout layout = getLayout(renderer, text);
+    if (layout.fittedWidth != width) {
+      layout.fitted = fit(layout.prefixWidths, text, width);
+      layout.fittedWidth = width;
+    }
+    return layout.fitted;
+  }
+
+  /**
+   * Fit a string into a width by finding the longest prefix that leaves room for the ellipsis.
+   * 
+   * @param prefixWidths Widths of the string's prefixes
+   * @param text The string
+   * @param width The width to fit it into
+   * @return The string, cut off if needed
+   */
+  private static String fit(int[] prefixWidths, String text, int width) {
+    if (prefixWidths[text.length()] <= width) {
+      return text;
+    } else if (width < ELLIPSIS_WIDTH) {
+      return "..";
+    }
+    int low = 0;
+    int high = text.length();
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (prefixWidths[middle] <= width - ELLIPSIS_WIDTH) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return text.substring(0, low) + ELLIPSIS;
+  }
+
+  /**
+   * Get the layout of a string, measuring it if it is not cached.
+   * 
+   * @param renderer The font renderer to draw the string with
+   * @param text The string
+   * @return The string's layout
+   */
+  private Layout getLayout(FontRenderer renderer, String text) {
+    if (renderer != fontRenderer) {
+      layouts.clear();
+      fontRenderer = renderer;
+    }
+    Layout layout = layouts.get(text);
+    if (layout == null) {
+      layout = new Layout(measure(renderer, text));
+      layouts.put(text, layout);
+    }
+    return layout;
+  }
+
+  /**
+   * Measure the width of every prefix of a string the way {@link FontRenderer#getStringWidth}
+   * measures the whole string, skipping formatting codes and widening bold characters. A prefix
+   * ending halfway through a formatting code is given the width without it, rather than one less,
+   * so that the widths never decrease.
+   * 
+   * @param renderer The font renderer to draw the string with
+   * @param text The string
+   * @return Width of each prefix of the string, by its length
+   */
+  private static int[] measure(FontRenderer renderer, String text) {
+    int[] prefixWidths = new int[text.length() + 1];
+    boolean bold = false;
+    int width = 0;
+    for (int i = 0; i < text.length(); i++) {
+      int charWidth = renderer.getCharWidth(text.charAt(i));
+      if (charWidth < 0 && i < text.length() - 1) {
+        prefixWidths[i + 1] = width;
+        char code = text.charAt(++i);
+        if (code == 'l' || code == 'L') {
+          bold = true;
+        } else if (code == 'r' || code == 'R') {
+          bold = false;
+        }
+        charWidth = 0;
+      }
+      width += charWidth;
+      if (bold && charWidth > 0) {
+        width++;
+      }
+      prefixWidths[i + 1] = width;
+    }
+    return prefixWidths;
+  }
+
+}
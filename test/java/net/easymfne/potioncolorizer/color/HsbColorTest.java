@@ -0,0 +1,108 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.color;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+
+import org.junit.Test;
+
+/**
+ * Checks {@link HsbColor} against the {@link Color#HSBtoRGB(float, float, float)} and
+ * {@link Color#RGBtoHSB(int, int, int, float[])} conversions it replaces, over every RGB color and
+ * at the edges of the hue range.
+ */
+public class HsbColorTest {
+
+  /** Hues at and around the ends of the range, where the hue wraps around. */
+  private static final float[] EDGE_HUES = {0.0F, Float.MIN_VALUE, 1.0F,
+      Math.nextAfter(1.0F, 0.0), 0.99999F, 0.9999F, 1.0F / 6.0F, 5.0F / 6.0F,
+      Math.nextAfter(1.0F / 6.0F, 0.0), -0.25F, 1.25F, 2.0F, -Math.nextAfter(1.0F, 0.0)};
+
+  /** Saturations and brightnesses to try the edge hues with. */
+  private static final float[] LEVELS = {0.0F, Float.MIN_VALUE, 0.001F, 0.25F, 0.5F, 0.75F,
+      0.999F, Math.nextAfter(1.0F, 0.0), 1.0F};
+
+  @Test
+  public void toHsbMatchesAwtForEveryColor() {
+    float[] expected = new float[3];
+    float[] actual = new float[3];
+    for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+      Color.RGBtoHSB(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF, expected);
+      HsbColor.toHsb(rgb | 0xFF000000, actual);
+      if (actual[0] != expected[0] || actual[1] != expected[1] || actual[2] != expected[2]) {
+        assertHsb(rgb, expected, actual);
+      }
+      if (HsbColor.hue(rgb) != expected[0] || HsbColor.saturation(rgb) != expected[1]
+          || HsbColor.brightness(rgb) != expected[2]) {
+        assertHsb(rgb, expected, new float[] {HsbColor.hue(rgb), HsbColor.saturation(rgb),
+            HsbColor.brightness(rgb)});
+      }
+    }
+  }
+
+  @Test
+  public void toRgbMatchesAwtForEveryColor() {
+    float[] hsb = new float[3];
+    for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+      Color.RGBtoHSB(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF, hsb);
+      int expected = Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
+      int actual = HsbColor.toRgb(hsb[0], hsb[1], hsb[2]);
+      if (actual != expected) {
+        assertEquals(Integer.toHexString(rgb), Integer.toHexString(expected),
+            Integer.toHexString(actual));
+      }
+    }
+  }
+
+  @Test
+  public void toRgbMatchesAwtAtEdgeHues() {
+    for (float hue : EDGE_HUES) {
+      for (float saturation : LEVELS) {
+        for (float brightness : LEVELS) {
+          assertEquals(hue + ", " + saturation + ", " + brightness,
+              Integer.toHexString(Color.HSBtoRGB(hue, saturation, brightness)),
+              Integer.toHexString(HsbColor.toRgb(hue, saturation, brightness)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void toRgbMatchesAwtOnAHsbGrid() {
+    for (int h = 0; h <= 360; h++) {
+      for (int s = 0; s <= 100; s += 5) {
+        for (int b = 0; b <= 100; b += 5) {
+          float hue = h / 360.0F;
+          float saturation = s / 100.0F;
+          float brightness = b / 100.0F;
+          assertEquals(hue + ", " + saturation + ", " + brightness,
+              Integer.toHexString(Color.HSBtoRGB(hue, saturation, brightness)),
+              Integer.toHexString(HsbColor.toRgb(hue, saturation, brightness)));
+        }
+      }
+    }
+  }
+
+  /** Fail with the expected and actual conversions of a color. */
+  private static void assertHsb(int rgb, float[] expected, float[] actual) {
+    String color = Integer.toHexString(rgb);
+    assertEquals(color + " hue", expected[0], actual[0], 0);
+    assertEquals(color + " saturation", expected[1], actual[1], 0);
+    assertEquals(color + " brightness", expected[2], actual[2], 0);
+  }
+
+}
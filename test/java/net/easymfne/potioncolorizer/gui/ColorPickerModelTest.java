@@ -0,0 +1,220 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+
+import net.easymfne.potioncolorizer.color.HsbColor;
+import net.easymfne.potioncolorizer.color.PackedColor;
+
+import org.junit.Test;
+
+/**
+ * Checks how {@link ColorPickerModel} moves between colors: what each setter changes, what it
+ * keeps, when it reports a change, and that the lazily derived RGB values follow. Its conversions
+ * are also checked against the AWT ones the picker used before.
+ */
+public class ColorPickerModelTest {
+
+  @Test
+  public void startsWithTheGivenColor() {
+    ColorPickerModel model = new ColorPickerModel(0x80336699);
+    assertEquals(0x336699, model.getRgb());
+    assertEquals(HsbColor.hue(0x336699), model.getHue(), 0);
+    assertEquals(HsbColor.saturation(0x336699), model.getSaturation(), 0);
+    assertEquals(HsbColor.brightness(0x336699), model.getBrightness(), 0);
+    assertEquals(rgb(model.getHue(), model.getSaturation(), 1.0F), model.getFullBrightnessRgb());
+  }
+
+  @Test
+  public void startsAtBlack() {
+    ColorPickerModel model = new ColorPickerModel(0);
+    assertEquals(0, model.getRgb());
+    assertEquals(0, model.getBrightness(), 0);
+    assertEquals(0xFFFFFF, model.getFullBrightnessRgb());
+  }
+
+  @Test
+  public void hueAndSaturationKeepBrightness() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    float brightness = model.getBrightness();
+    model.getRgb();
+    model.getFullBrightnessRgb();
+    assertTrue(model.setHueSaturation(0.25F, 0.5F));
+    assertEquals(0.25F, model.getHue(), 0);
+    assertEquals(0.5F, model.getSaturation(), 0);
+    assertEquals(brightness, model.getBrightness(), 0);
+    assertEquals(rgb(0.25F, 0.5F, brightness), model.getRgb());
+    assertEquals(rgb(0.25F, 0.5F, 1.0F), model.getFullBrightnessRgb());
+    assertFalse(model.setHueSaturation(0.25F, 0.5F));
+  }
+
+  @Test
+  public void brightnessKeepsHueAndSaturation() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    float hue = model.getHue();
+    float saturation = model.getSaturation();
+    int fullBrightness = model.getFullBrightnessRgb();
+    assertTrue(model.setBrightness(0.75F));
+    assertEquals(hue, model.getHue(), 0);
+    assertEquals(saturation, model.getSaturation(), 0);
+    assertEquals(0.75F, model.getBrightness(), 0);
+    assertEquals(rgb(hue, saturation, 0.75F), model.getRgb());
+    assertEquals(fullBrightness, model.getFullBrightnessRgb());
+    assertFalse(model.setBrightness(0.75F));
+  }
+
+  @Test
+  public void rgbIsKeptExactly() {
+    ColorPickerModel model = new ColorPickerModel(0);
+    for (int rgb = 0; rgb <= 0xFFFFFF; rgb += 0x010305) {
+      model.setRgb(rgb);
+      assertEquals(rgb, model.getRgb());
+      assertEquals(HsbColor.hue(rgb), model.getHue(), 0);
+      assertEquals(HsbColor.saturation(rgb), model.getSaturation(), 0);
+      assertEquals(HsbColor.brightness(rgb), model.getBrightness(), 0);
+      assertEquals(rgb(model.getHue(), model.getSaturation(), 1.0F), model.getFullBrightnessRgb());
+    }
+  }
+
+  @Test
+  public void rgbReportsOnlyRealChanges() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    assertFalse(model.setRgb(0x336699));
+    assertFalse(model.setRgb(0xFF336699));
+    assertTrue(model.setRgb(0x336698));
+    model.setHueSaturation(0.5F, 0.0F);
+    model.setBrightness(0.2F);
+    assertFalse(model.setRgb(model.getRgb()));
+    assertEquals(0.5F, model.getHue(), 0);
+  }
+
+  @Test
+  public void rgbAfterHsbChanges() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    model.getRgb();
+    model.getFullBrightnessRgb();
+    model.setHueSaturation(0.6F, 0.8F);
+    assertTrue(model.setRgb(0x336699));
+    assertEquals(0x336699, model.getRgb());
+    assertEquals(HsbColor.hue(0x336699), model.getHue(), 0);
+    assertEquals(rgb(model.getHue(), model.getSaturation(), 1.0F), model.getFullBrightnessRgb());
+  }
+
+  @Test
+  public void componentsChangeOneChannel() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    assertEquals(0x33, model.getComponent(ColorPickerModel.RED));
+    assertEquals(0x66, model.getComponent(ColorPickerModel.GREEN));
+    assertEquals(0x99, model.getComponent(ColorPickerModel.BLUE));
+    assertTrue(model.setComponent(ColorPickerModel.RED, 0xAA));
+    assertEquals(0xAA6699, model.getRgb());
+    assertTrue(model.setComponent(ColorPickerModel.GREEN, 0));
+    assertEquals(0xAA0099, model.getRgb());
+    assertTrue(model.setComponent(ColorPickerModel.BLUE, 0xFF));
+    assertEquals(0xAA00FF, model.getRgb());
+    assertFalse(model.setComponent(ColorPickerModel.BLUE, 0xFF));
+    assertEquals(HsbColor.hue(0xAA00FF), model.getHue(), 0);
+  }
+
+  @Test
+  public void componentsAreClamped() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    model.setComponent(ColorPickerModel.RED, 300);
+    model.setComponent(ColorPickerModel.GREEN, -5);
+    model.setComponent(ColorPickerModel.BLUE, 256);
+    assertEquals(0xFF00FF, model.getRgb());
+  }
+
+  @Test
+  public void componentsFollowHsbChanges() {
+    ColorPickerModel model = new ColorPickerModel(0x336699);
+    model.setHueSaturation(0.0F, 1.0F);
+    model.setBrightness(1.0F);
+    assertEquals(0xFF, model.getComponent(ColorPickerModel.RED));
+    assertEquals(0, model.getComponent(ColorPickerModel.GREEN));
+    assertTrue(model.setComponent(ColorPickerModel.GREEN, 0xFF));
+    assertEquals(0xFFFF00, model.getRgb());
+    assertEquals(1.0F / 6.0F, model.getHue(), 1e-6F);
+  }
+
+  @Test
+  public void rgbConvertsAsAwtDoesForEveryColor() {
+    ColorPickerModel model = new ColorPickerModel(0);
+    float[] hsb = new float[3];
+    for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+      model.setRgb(rgb);
+      Color.RGBtoHSB(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF, hsb);
+      if (model.getHue() != hsb[0] || model.getSaturation() != hsb[1]
+          || model.getBrightness() != hsb[2]) {
+        String color = Integer.toHexString(rgb);
+        assertEquals(color + " hue", hsb[0], model.getHue(), 0);
+        assertEquals(color + " saturation", hsb[1], model.getSaturation(), 0);
+        assertEquals(color + " brightness", hsb[2], model.getBrightness(), 0);
+      }
+      int fullBrightness = Color.HSBtoRGB(hsb[0], hsb[1], 1.0F) & 0xFFFFFF;
+      if (model.getFullBrightnessRgb() != fullBrightness) {
+        assertEquals(Integer.toHexString(rgb), Integer.toHexString(fullBrightness),
+            Integer.toHexString(model.getFullBrightnessRgb()));
+      }
+    }
+  }
+
+  @Test
+  public void hsbConvertsAsAwtDoesForEveryColor() {
+    ColorPickerModel model = new ColorPickerModel(0);
+    float[] hsb = new float[3];
+    for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+      Color.RGBtoHSB(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF, hsb);
+      model.setHueSaturation(hsb[0], hsb[1]);
+      model.setBrightness(hsb[2]);
+      int expected = Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]) & 0xFFFFFF;
+      if (model.getRgb() != expected) {
+        assertEquals(Integer.toHexString(rgb), Integer.toHexString(expected),
+            Integer.toHexString(model.getRgb()));
+      }
+    }
+  }
+
+  @Test
+  public void hsbConvertsAsAwtDoesAtEdgeHues() {
+    float[] hues = {0.0F, 1.0F, Math.nextAfter(1.0F, 0.0), 0.99999F, 0.9999F, Float.MIN_VALUE};
+    float[] levels = {0.0F, 0.001F, 0.5F, 0.999F, Math.nextAfter(1.0F, 0.0), 1.0F};
+    ColorPickerModel model = new ColorPickerModel(0);
+    for (float hue : hues) {
+      for (float saturation : levels) {
+        for (float brightness : levels) {
+          model.setHueSaturation(hue, saturation);
+          model.setBrightness(brightness);
+          String message = hue + ", " + saturation + ", " + brightness;
+          assertEquals(message, Color.HSBtoRGB(hue, saturation, brightness) & 0xFFFFFF,
+              model.getRgb());
+          assertEquals(message, Color.HSBtoRGB(hue, saturation, 1.0F) & 0xFFFFFF,
+              model.getFullBrightnessRgb());
+        }
+      }
+    }
+  }
+
+  /** Convert hue, saturation and brightness to an RGB color without alpha. */
+  private static int rgb(float hue, float saturation, float brightness) {
+    return PackedColor.rgb(HsbColor.toRgb(hue, saturation, brightness));
+  }
+
+}
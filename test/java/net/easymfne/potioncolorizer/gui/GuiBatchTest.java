@@ -0,0 +1,260 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that {@link GuiBatch} draws the same quads and lines between begin and end as it does
+ * straight away, merged into one draw for each run of primitives sharing a state.
+ */
+public class GuiBatchTest {
+
+  private RecordingBatchBackend backend;
+  private GuiBatch batch;
+
+  @Before
+  public void setUp() {
+    backend = new RecordingBatchBackend();
+    batch = new GuiBatch(backend);
+  }
+
+  @Test
+  public void unbatchedPrimitivesAreDrawnStraightAway() {
+    batch.rect(0, 0, 10, 10, 0xFF00FF00);
+    assertEquals(1, backend.getDrawCount());
+    batch.line(0, 0, 10, 10, 2, 0xFFFFFFFF, true);
+    assertEquals(2, backend.getDrawCount());
+    assertEquals(GuiBatch.State.COLORED_QUADS, backend.getState(0));
+    assertEquals(4, backend.getVertexCount(0));
+    assertEquals(GuiBatch.State.INVERTED_LINES, backend.getState(1));
+    assertEquals(2, backend.getVertexCount(1));
+    assertEquals(2, backend.getLineWidth(1), 0);
+  }
+
+  @Test
+  public void batchedDrawsMatchUnbatchedDraws() {
+    List<String> primitives = draw(new Random(1), 2000);
+    assertEquals(primitives, listDraws());
+    List<String> unbatched = listVertices();
+    int runs = countRuns();
+
+    backend.clear();
+    batch.setTint(0xFFFFFFFF);
+    batch.begin();
+    draw(new Random(1), 2000);
+    batch.end();
+    assertEquals(runs, backend.getDrawCount());
+    assertEquals(unbatched, listVertices());
+  }
+
+  @Test
+  public void runOfOneStateIsOneDraw() {
+    batch.begin();
+    for (int i = 0; i < 1000; i++) {
+      batch.rect(i, 0, i + 1, 1, 0xFF000000 | i);
+    }
+    assertEquals(0, backend.getDrawCount());
+    batch.end();
+    assertEquals(1, backend.getDrawCount());
+    assertEquals(4000, backend.getVertexCount(0));
+  }
+
+  @Test
+  public void linesOfDifferentWidthsAreDrawnApart() {
+    batch.begin();
+    batch.line(0, 0, 1, 1, 1, 0xFFFFFFFF, false);
+    batch.line(0, 0, 1, 1, 1, 0xFFFFFFFF, false);
+    batch.line(0, 0, 1, 1, 3, 0xFFFFFFFF, false);
+    batch.end();
+    assertEquals(2, backend.getDrawCount());
+    assertEquals(4, backend.getVertexCount(0));
+    assertEquals(1, backend.getLineWidth(0), 0);
+    assertEquals(3, backend.getLineWidth(1), 0);
+  }
+
+  @Test
+  public void nestedBeginHoldsUntilOutermostEnd() {
+    batch.begin();
+    batch.begin();
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    batch.end();
+    assertEquals(0, backend.getDrawCount());
+    batch.end();
+    assertEquals(1, backend.getDrawCount());
+    batch.end();
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    assertEquals(2, backend.getDrawCount());
+  }
+
+  @Test
+  public void flushDrawsHeldPrimitives() {
+    batch.begin();
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    batch.flush();
+    assertEquals(1, backend.getDrawCount());
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    assertEquals(1, backend.getDrawCount());
+    batch.end();
+    assertEquals(2, backend.getDrawCount());
+  }
+
+  @Test
+  public void setBackendDrawsHeldPrimitivesWithPreviousBackend() {
+    RecordingBatchBackend next = new RecordingBatchBackend();
+    batch.begin();
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    assertSame(backend, batch.setBackend(next));
+    assertEquals(1, backend.getDrawCount());
+    batch.rect(0, 0, 1, 1, 0xFFFFFFFF);
+    batch.end();
+    assertEquals(1, backend.getDrawCount());
+    assertEquals(1, next.getDrawCount());
+  }
+
+  @Test
+  public void texturedQuadsCarryTheTint() {
+    batch.setTint(0x80FF0000);
+    batch.texturedQuad(0, 1, 0, 1, 1, 1, 1, 1, 1, 0, 1, 0, 0, 0, 0, 0, 0);
+    batch.rect(0, 0, 1, 1, 0xFF00FF00);
+    int[] textured = backend.getColors(0);
+    int[] colored = backend.getColors(1);
+    for (int vertex = 0; vertex < 4; vertex++) {
+      assertEquals(0x80FF0000, textured[vertex]);
+      assertEquals(0xFF00FF00, colored[vertex]);
+    }
+  }
+
+  @Test
+  public void colorsKeepEveryBit() {
+    int[] nanColors = {0x7F800001, 0xFF800001, 0x7FC00000, 0xFFFFFFFF};
+    batch.begin();
+    for (int color : nanColors) {
+      batch.line(0, 0, 1, 1, 1, color, false);
+    }
+    batch.end();
+    int[] colors = backend.getColors(0);
+    for (int line = 0; line < nanColors.length; line++) {
+      assertEquals(nanColors[line], colors[line * 2]);
+      assertEquals(nanColors[line], colors[line * 2 + 1]);
+    }
+  }
+
+  /**
+   * Add random primitives, in runs of the same state now and then, as the controls do.
+   * 
+   * @return The state of each primitive, and the width of lines, as listed by {@link #listDraws()}
+   */
+  private List<String> draw(Random random, int count) {
+    List<String> primitives = new ArrayList<String>();
+    int kind = 0;
+    for (int i = 0; i < count; i++) {
+      if (random.nextInt(3) == 0) {
+        kind = random.nextInt(6);
+      }
+      float x = random.nextInt(400);
+      float y = random.nextInt(300);
+      int color = random.nextInt();
+      float width = 1 + random.nextInt(2);
+      switch (kind) {
+        case 0:
+          batch.rect(x, y, x + random.nextInt(50), y + random.nextInt(50), color);
+          primitives.add(GuiBatch.State.COLORED_QUADS.name());
+          break;
+        case 1:
+          batch.quad(x, y, x + 5, y, x + 5, y + 5, x, y + 7, random.nextInt(3), color);
+          primitives.add(GuiBatch.State.COLORED_QUADS.name());
+          break;
+        case 2:
+          if (random.nextInt(4) == 0) {
+            batch.setTint(color);
+          }
+          batch.texturedQuad(x, y + 8, 0, 0.5F, x + 8, y + 8, 0.5F, 0.5F, x + 8, y, 0.5F, 0, x,
+              y, 0, 0, 1);
+          primitives.add(GuiBatch.State.TEXTURED_QUADS.name());
+          break;
+        case 3:
+          batch.line(x, y, x + 10, y + 10, 1, color, false);
+          primitives.add(GuiBatch.State.COLORED_LINES + " " + 1F);
+          break;
+        case 4:
+          batch.line(x, y, x + 10, y, width, color, false);
+          primitives.add(GuiBatch.State.COLORED_LINES + " " + width);
+          break;
+        default:
+          batch.line(x, y, x, y + 10, width, color, true);
+          primitives.add(GuiBatch.State.INVERTED_LINES + " " + width);
+          break;
+      }
+    }
+    return primitives;
+  }
+
+  /** List the state of each recorded draw, and the width of lines. */
+  private List<String> listDraws() {
+    List<String> list = new ArrayList<String>();
+    for (int draw = 0; draw < backend.getDrawCount(); draw++) {
+      GuiBatch.State state = backend.getState(draw);
+      list.add(state.mode == GuiBatch.State.COLORED_LINES.mode ? state + " "
+          + backend.getLineWidth(draw) : state.name());
+    }
+    return list;
+  }
+
+  /** List the recorded vertices and their colors with the state and line width of their draw. */
+  private List<String> listVertices() {
+    List<String> list = new ArrayList<String>();
+    for (int draw = 0; draw < backend.getDrawCount(); draw++) {
+      float[] vertices = backend.getVertices(draw);
+      int[] colors = backend.getColors(draw);
+      for (int offset = 0; offset < vertices.length; offset += GuiBatch.STRIDE) {
+        StringBuilder vertex = new StringBuilder().append(backend.getState(draw));
+        if (backend.getState(draw).mode == GuiBatch.State.COLORED_LINES.mode) {
+          vertex.append(' ').append(backend.getLineWidth(draw));
+        }
+        for (int i = 0; i < GuiBatch.STRIDE; i++) {
+          vertex.append(' ').append(Integer.toHexString(Float.floatToRawIntBits(vertices[offset
+              + i])));
+        }
+        vertex.append(' ').append(Integer.toHexString(colors[offset / GuiBatch.STRIDE]));
+        list.add(vertex.toString());
+      }
+    }
+    return list;
+  }
+
+  /** Count the runs of recorded draws sharing the same state and, for lines, width. */
+  private int countRuns() {
+    int runs = 0;
+    for (int draw = 0; draw < backend.getDrawCount(); draw++) {
+      if (draw == 0
+          || backend.getState(draw) != backend.getState(draw - 1)
+          || backend.getState(draw).mode == GuiBatch.State.COLORED_LINES.mode
+          && backend.getLineWidth(draw) != backend.getLineWidth(draw - 1)) {
+        runs++;
+      }
+    }
+    return runs;
+  }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the results of {@link PotionNameIndex#filter(String)} against a naive search that checks
+ * every name with String.contains, for queries typed, extended and deleted in any order.
+ */
+public class PotionNameIndexTest {
+
+  /** Names of the vanilla potions and their English names, as the config panel indexes them. */
+  private static final String[][] NAMES = { {"potion.moveSpeed", "Speed"},
+      {"potion.moveSlowdown", "Slowness"}, {"potion.digSpeed", "Haste"},
+      {"potion.digSlowDown", "Mining Fatigue"}, {"potion.damageBoost", "Strength"},
+      {"potion.heal", "Instant Health"}, {"potion.harm", "Instant Damage"},
+      {"potion.jump", "Jump Boost"}, {"potion.confusion", "Nausea"},
+      {"potion.regeneration", "Regeneration"}, {"potion.resistance", "Resistance"},
+      {"potion.fireResistance", "Fire Resistance"}, {"potion.waterBreathing", "Water Breathing"},
+      {"potion.invisibility", "Invisibility"}, {"potion.blindness", "Blindness"},
+      {"potion.nightVision", "Night Vision"}, {"potion.hunger", "Hunger"},
+      {"potion.weakness", "Weakness"}, {"potion.poison", "Poison"}, {"potion.wither", "Wither"},
+      {"potion.healthBoost", "Health Boost"}, {"potion.absorption", "Absorption"},
+      {"potion.saturation", "Saturation"}, {"", "Ünïcödé Potion"}};
+
+  /** Characters random queries are made of, weighted towards those in the names. */
+  private static final String ALPHABET = "aeinorstlhudgmpbcfvwABESNÜï. x";
+
+  private PotionNameIndex index;
+
+  /** Names of each entry added to the index. */
+  private List<String[]> entries;
+
+  @Before
+  public void setUp() {
+    index = new PotionNameIndex();
+    entries = new ArrayList<String[]>();
+    for (String[] names : NAMES) {
+      add(names);
+    }
+  }
+
+  @Test
+  public void emptyQueryMatchesEverything() {
+    BitSet all = new BitSet();
+    all.set(0, NAMES.length);
+    assertEquals(all, index.filter(""));
+  }
+
+  @Test
+  public void everySubstringOfEveryName() {
+    for (String[] names : NAMES) {
+      for (String name : names) {
+        for (int start = 0; start < name.length(); start++) {
+          for (int end = start + 1; end <= name.length(); end++) {
+            assertMatches(name.substring(start, end));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void queriesTypedAndDeleted() {
+    Random random = new Random(1);
+    StringBuilder query = new StringBuilder();
+    for (int step = 0; step < 20000; step++) {
+      int action = random.nextInt(10);
+      if (action < 6) {
+        query.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      } else if (action < 9 && query.length() > 0) {
+        query.setLength(query.length() - 1);
+      } else {
+        query.setLength(0);
+        String[] names = NAMES[random.nextInt(NAMES.length)];
+        String name = names[random.nextInt(names.length)];
+        int start = name.isEmpty() ? 0 : random.nextInt(name.length());
+        query.append(name.substring(start, start + random.nextInt(name.length() - start + 1)));
+      }
+      assertMatches(query.toString());
+    }
+  }
+
+  @Test
+  public void entriesAddedAfterFiltering() {
+    assertMatches("spe");
+    add("potion.special", "Special");
+    assertMatches("spe");
+    assertMatches("spec");
+  }
+
+  /** Check the index's matches for a query against every name's String.contains. */
+  private void assertMatches(String query) {
+    assertEquals("Matches of \"" + query + "\"", naiveFilter(query), index.filter(query));
+  }
+
+  /** Add an entry to the index and to the names the naive search checks. */
+  private void add(String... names) {
+    assertEquals(entries.size(), index.add(names));
+    entries.add(names);
+  }
+
+  /** Find the entries matching a query by checking every name of every entry. */
+  private BitSet naiveFilter(String query) {
+    String lowerQuery = query.toLowerCase(Locale.ROOT);
+    BitSet matches = new BitSet();
+    for (int entry = 0; entry < entries.size(); entry++) {
+      for (String name : entries.get(entry)) {
+        if (name.toLowerCase(Locale.ROOT).contains(lowerQuery)) {
+          matches.set(entry);
+        }
+      }
+    }
+    return matches;
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link GuiBatch} backend that records what would have been drawn instead of drawing it, so that
+ * the batching of the controls can be checked without a GL context.
+ */
+public class RecordingBatchBackend implements GuiBatch.Backend {
+
+  /** States, line widths, vertices and vertex colors of the recorded draws. */
+  private final List<GuiBatch.State> states = new ArrayList<GuiBatch.State>();
+  private final List<Float> lineWidths = new ArrayList<Float>();
+  private final List<float[]> vertices = new ArrayList<float[]>();
+  private final List<int[]> colors = new ArrayList<int[]>();
+
+  @Override
+  public void draw(GuiBatch.State state, float lineWidth, float[] drawVertices, int[] drawColors,
+      int vertexCount) {
+    states.add(state);
+    lineWidths.add(Float.valueOf(lineWidth));
+    vertices.add(Arrays.copyOf(drawVertices, vertexCount * GuiBatch.STRIDE));
+    colors.add(Arrays.copyOf(drawColors, vertexCount));
+  }
+
+  /** Get the number of draws recorded. */
+  public int getDrawCount() {
+    return states.size();
+  }
+
+  /**
+   * Get the state of a recorded draw.
+   * 
+   * @param draw Number of the draw, counting from zero
+   * @return The GL state it was drawn with
+   */
+  public GuiBatch.State getState(int draw) {
+    return states.get(draw);
+  }
+
+  /**
+   * Get the line width of a recorded draw.
+   * 
+   * @param draw Number of the draw, counting from zero
+   * @return The line width it was drawn with
+   */
+  public float getLineWidth(int draw) {
+    return lineWidths.get(draw).floatValue();
+  }
+
+  /**
+   * Get the number of vertices of a recorded draw.
+   * 
+   * @param draw Number of the draw, counting from zero
+   * @return The number of vertices it drew
+   */
+  public int getVertexCount(int draw) {
+    return vertices.get(draw).length / GuiBatch.STRIDE;
+  }
+
+  /**
+   * Get the vertices of a recorded draw.
+   * 
+   * @param draw Number of the draw, counting from zero
+   * @return The vertices it drew, {@link GuiBatch#STRIDE} floats each
+   */
+  public float[] getVertices(int draw) {
+    return vertices.get(draw).clone();
+  }
+
+  /**
+   * Get the vertex colors of a recorded draw.
+   * 
+   * @param draw Number of the draw, counting from zero
+   * @return The ARGB colors of the vertices it drew
+   */
+  public int[] getColors(int draw) {
+    return colors.get(draw).clone();
+  }
+
+  /** Forget the recorded draws. */
+  public void clear() {
+    states.clear();
+    lineWidths.clear();
+    vertices.clear();
+    colors.clear();
+  }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * This file is part of PotionColorizer by Eric Hildebrand.
+ * 
+ * PotionColorizer is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * PotionColorizer is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with PotionColorizer. If
+ * not, see <http://www.gnu.org/licenses/>.
+ */
+package net.easymfne.potioncolorizer.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.minecraft.client.gui.FontRenderer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the widths and cut off points of {@link TextLayoutCache} against measuring the strings
+ * directly with {@link FontRenderer#getStringWidth(String)}, the way the controls did before the
+ * cache.
+ */
+public class TextLayoutCacheTest {
+
+  /** Formatting code character. */
+  private static final char CODE = '\u00a7';
+
+  /** Characters random strings are made of, with every width of the stand-in font. */
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ABCIT!.,'[]@~\"()";
+
+  /** Formatting codes random strings may contain, including bold and reset. */
+  private static final String CODES = "0123456789abcdeflLrRmno";
+
+  private FontRenderer renderer;
+  private TextLayoutCache cache;
+  private Random random;
+
+  @Before
+  public void setUp() {
+    renderer = new FontRenderer();
+    cache = new TextLayoutCache();
+    random = new Random(1);
+  }
+
+  @Test
+  public void widthsMatchGetStringWidth() {
+    for (int i = 0; i < 20000; i++) {
+      String text = randomText(true);
+      assertEquals(text, renderer.getStringWidth(text), cache.getWidth(renderer, text));
+    }
+  }
+
+  @Test
+  public void fitsMatchTrimmingWithoutFormatting() {
+    for (int i = 0; i < 2000; i++) {
+      String text = randomText(false);
+      int fullWidth = renderer.getStringWidth(text);
+      for (int width = 0; width <= fullWidth + 2; width++) {
+        assertEquals(text + " in " + width, trim(text, width), cache.fit(renderer, text, width));
+      }
+    }
+  }
+
+  @Test
+  public void fitsKeepTheLongestPrefixWithFormatting() {
+    for (int i = 0; i < 2000; i++) {
+      String text = randomText(true);
+      int fullWidth = renderer.getStringWidth(text);
+      for (int width = 0; width <= fullWidth + 2; width++) {
+        String fitted = cache.fit(renderer, text, width);
+        String message = text + " in " + width + ": " + fitted;
+        if (fullWidth <= width) {
+          assertEquals(message, text, fitted);
+        } else if (width < 8) {
+          assertEquals(message, "..", fitted);
+        } else {
+          assertTrue(message, fitted.endsWith("..."));
+          String prefix = fitted.substring(0, fitted.length() - 3);
+          assertTrue(message, text.startsWith(prefix));
+          assertFalse(message, prefix.endsWith(String.valueOf(CODE)));
+          assertTrue(message, renderer.getStringWidth(prefix) <= width - 8);
+          String longer = text.substring(0, nextPrefixLength(text, prefix.length()));
+          assertTrue(message, renderer.getStringWidth(longer) > width - 8);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void fitsAreCachedPerWidth() {
+    String text = "Fire Resistance and Water Breathing";
+    String fitted = cache.fit(renderer, text, 60);
+    assertSame(fitted, cache.fit(renderer, text, 60));
+    assertEquals(trim(text, 90), cache.fit(renderer, text, 90));
+    assertEquals(fitted, cache.fit(renderer, text, 60));
+  }
+
+  @Test
+  public void anotherRendererMeasuresAgain() {
+    String text = "Fire Resistance and Water Breathing";
+    FontRenderer wide = new FontRenderer() {
+      @Override
+      public int getCharWidth(char character) {
+        int width = super.getCharWidth(character);
+        return width > 0 ? width * 2 : width;
+      }
+    };
+    assertEquals(renderer.getStringWidth(text), cache.getWidth(renderer, text));
+    assertEquals(wide.getStringWidth(text), cache.getWidth(wide, text));
+    assertEquals(trim(text, 100), cache.fit(renderer, text, 100));
+    assertEquals(trim(text, 100, wide), cache.fit(wide, text, 100));
+  }
+
+  @Test
+  public void evictedLayoutsAreMeasuredAgain() {
+    for (int i = 0; i < 1000; i++) {
+      String text = "potion " + i % 300;
+      assertEquals(trim(text, 40), cache.fit(renderer, text, 40));
+      assertEquals(renderer.getStringWidth(text), cache.getWidth(renderer, text));
+    }
+    cache.clear();
+    assertEquals(trim("potion 1", 40), cache.fit(renderer, "potion 1", 40));
+  }
+
+  /** Make a random string, with formatting codes if asked to and sometimes a dangling one. */
+  private String randomText(boolean formatting) {
+    StringBuilder text = new StringBuilder();
+    int length = random.nextInt(40);
+    for (int i = 0; i < length; i++) {
+      if (formatting && random.nextInt(6) == 0) {
+        text.append(CODE);
+        if (i < length - 1 || random.nextBoolean()) {
+          text.append(CODES.charAt(random.nextInt(CODES.length())));
+        }
+      } else {
+        text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+    }
+    return text.toString();
+  }
+
+  /** Get the length of the next prefix longer than a given one that does not split a code. */
+  private static int nextPrefixLength(String text, int length) {
+    return text.charAt(length) == CODE && length + 2 <= text.length() ? length + 2 : length + 1;
+  }
+
+  /** Cut a string off by dropping one character at a time, measuring it each time. */
+  private String trim(String text, int width) {
+    return trim(text, width, renderer);
+  }
+
+  /** Cut a string off by dropping one character at a time, measuring it each time. */
+  private static String trim(String text, int width, FontRenderer fontRenderer) {
+    if (fontRenderer.getStringWidth(text) <= width) {
+      return text;
+    } else if (width < 8) {
+      return "..";
+    }
+    String trimmed = text;
+    while (fontRenderer.getStringWidth(trimmed) > width - 8 && trimmed.length() > 0) {
+      trimmed = trimmed.substring(0, trimmed.length() - 1);
+    }
+    return trimmed + "...";
+  }
+
+}